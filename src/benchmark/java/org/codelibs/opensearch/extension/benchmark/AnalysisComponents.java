@@ -0,0 +1,180 @@
+package org.codelibs.opensearch.extension.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.codelibs.opensearch.extension.ExtensionPlugin;
+import org.opensearch.Version;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.analysis.CharFilterFactory;
+import org.opensearch.index.analysis.TokenFilterFactory;
+import org.opensearch.index.analysis.TokenizerFactory;
+import org.opensearch.indices.analysis.AnalysisModule.AnalysisProvider;
+
+/**
+ * Creates the analysis components registered by {@link ExtensionPlugin} with settings
+ * suitable for {@link BenchmarkCorpus}, backed by dictionary files in a temporary config directory.
+ */
+public final class AnalysisComponents implements Closeable {
+
+    private final ExtensionPlugin plugin;
+
+    private final Path homeDir;
+
+    private final Environment env;
+
+    private final IndexSettings indexSettings;
+
+    private final Map<String, Settings> defaultSettings = new HashMap<>();
+
+    public AnalysisComponents() throws IOException {
+        homeDir = Files.createTempDirectory("analysis-benchmark");
+        final Settings nodeSettings = Settings.builder()
+                .put("path.home", homeDir.toString())
+                .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                .build();
+        env = new Environment(nodeSettings, homeDir.resolve("config"));
+        Files.createDirectories(env.configDir());
+        plugin = new ExtensionPlugin(Settings.EMPTY, env.configDir());
+        final IndexMetadata indexMetadata = IndexMetadata.builder("benchmark")
+                .settings(nodeSettings)
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+        indexSettings = new IndexSettings(indexMetadata, nodeSettings);
+
+        writeDictionaries();
+
+        defaultSettings.put("ngram_synonym", Settings.builder().put("synonyms_path", "synonyms.txt").build());
+        defaultSettings.put("japanese_tokenizer", Settings.builder().put("user_dictionary", "userdict_ja.txt").build());
+        defaultSettings.put("kuromoji_pos_concat", Settings.builder().putList("tags", "名詞-数", "名詞-接尾-助数詞").build());
+        defaultSettings.put("number_concat", Settings.builder().put("suffix_words_path", "suffix_words.txt").build());
+        defaultSettings.put("pattern_concat", Settings.builder().put("pattern1", "[0-9]+").put("pattern2", "年|月|日|人|個|円").build());
+        defaultSettings.put("stop_prefix", Settings.builder().put("stopwords_path", "stop_prefix.txt").build());
+        defaultSettings.put("stop_suffix", Settings.builder().put("stopwords_path", "stop_suffix.txt").build());
+        defaultSettings.put("reloadable_stop", Settings.builder().put("stopwords_path", "stopwords.txt").build());
+        defaultSettings.put("reloadable_keyword_marker", Settings.builder().put("keywords_path", "keywords.txt").build());
+    }
+
+    private void writeDictionaries() throws IOException {
+        final List<String> synonyms = new ArrayList<>();
+        final String[] nouns = BenchmarkCorpus.nouns();
+        for (int i = 0; i + 1 < nouns.length; i += 2) {
+            synonyms.add(nouns[i] + "," + nouns[i + 1]);
+        }
+        final String[] katakana = BenchmarkCorpus.katakanaWords();
+        for (int i = 0; i + 1 < katakana.length; i += 3) {
+            synonyms.add(katakana[i] + "," + katakana[i + 1]);
+        }
+        write("synonyms.txt", synonyms);
+
+        final List<String> userDict = new ArrayList<>();
+        userDict.add("全文検索,全文 検索,ゼンブン ケンサク,カスタム名詞");
+        userDict.add("形態素解析,形態素 解析,ケイタイソ カイセキ,カスタム名詞");
+        write("userdict_ja.txt", userDict);
+
+        write("suffix_words.txt", Arrays.asList(BenchmarkCorpus.counters()));
+        write("stop_prefix.txt", Arrays.asList("の", "を", "ABC", "connect"));
+        write("stop_suffix.txt", Arrays.asList("の", "する", "ing", "ness"));
+        write("stopwords.txt", Arrays.asList("the", "a", "of", "and", "to", "in", "is", "は", "が", "を", "に"));
+        write("keywords.txt", Arrays.asList(BenchmarkCorpus.englishWords()).subList(0, 6));
+    }
+
+    private void write(final String name, final List<String> lines) throws IOException {
+        Files.write(env.configDir().resolve(name), lines, StandardCharsets.UTF_8);
+    }
+
+    private Settings settings(final String type) {
+        return defaultSettings.getOrDefault(type, Settings.EMPTY);
+    }
+
+    public TokenizerFactory tokenizer(final String type) throws IOException {
+        return get(plugin.getTokenizers(), type);
+    }
+
+    /**
+     * Creates a tokenizer with the given settings on top of the default ones for the type.
+     */
+    public TokenizerFactory tokenizer(final String type, final Settings overrides) throws IOException {
+        return get(plugin.getTokenizers(), type, Settings.builder().put(settings(type)).put(overrides).build());
+    }
+
+    public TokenFilterFactory tokenFilter(final String type) throws IOException {
+        return get(plugin.getTokenFilters(), type);
+    }
+
+    public CharFilterFactory charFilter(final String type) throws IOException {
+        return get(plugin.getCharFilters(), type);
+    }
+
+    private <T> T get(final Map<String, AnalysisProvider<T>> providers, final String type) throws IOException {
+        return get(providers, type, settings(type));
+    }
+
+    private <T> T get(final Map<String, AnalysisProvider<T>> providers, final String type, final Settings settings) throws IOException {
+        final AnalysisProvider<T> provider = providers.get(type);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown analysis component: " + type);
+        }
+        return provider.get(indexSettings, env, type, settings);
+    }
+
+    /**
+     * Builds an analyzer like a custom analyzer definition in index settings.
+     */
+    public Analyzer analyzer(final String[] charFilters, final String tokenizer, final String[] tokenFilters) throws IOException {
+        final CharFilterFactory[] charFilterFactories = new CharFilterFactory[charFilters.length];
+        for (int i = 0; i < charFilters.length; i++) {
+            charFilterFactories[i] = charFilter(charFilters[i]);
+        }
+        final TokenizerFactory tokenizerFactory = tokenizer(tokenizer);
+        final TokenFilterFactory[] tokenFilterFactories = new TokenFilterFactory[tokenFilters.length];
+        for (int i = 0; i < tokenFilters.length; i++) {
+            tokenFilterFactories[i] = tokenFilter(tokenFilters[i]);
+        }
+        return new Analyzer() {
+            @Override
+            protected Reader initReader(final String fieldName, final Reader reader) {
+                Reader r = reader;
+                for (final CharFilterFactory factory : charFilterFactories) {
+                    r = factory.create(r);
+                }
+                return r;
+            }
+
+            @Override
+            protected TokenStreamComponents createComponents(final String fieldName) {
+                final Tokenizer source = tokenizerFactory.create();
+                TokenStream stream = source;
+                for (final TokenFilterFactory factory : tokenFilterFactories) {
+                    stream = factory.create(stream);
+                }
+                return new TokenStreamComponents(source, stream);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> paths = Files.walk(homeDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
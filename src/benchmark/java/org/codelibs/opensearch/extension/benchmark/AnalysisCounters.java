@@ -0,0 +1,26 @@
+package org.codelibs.opensearch.extension.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results reported as tokens/sec and bytes/sec next to the primary ops/sec.
+ * Run with {@code -prof gc} to get the allocation rate of each benchmark.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class AnalysisCounters {
+
+    public long tokens;
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        tokens = 0;
+        bytes = 0;
+    }
+}
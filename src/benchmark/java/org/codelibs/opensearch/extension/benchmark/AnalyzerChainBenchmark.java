@@ -0,0 +1,99 @@
+package org.codelibs.opensearch.extension.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of analyzer chains built from the plugin's components as they are used in index settings.
+ * One operation analyzes one document.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalyzerChainBenchmark {
+
+    @Param({ "japanese", "japanese_concat", "japanese_english", "ngram_synonym" })
+    public String chain;
+
+    @Param({ "2000" })
+    public int docLength;
+
+    private AnalysisComponents components;
+
+    private Analyzer analyzer;
+
+    private String[] docs;
+
+    private int[] docBytes;
+
+    private int docIndex;
+
+    @Setup
+    public void setup() throws IOException {
+        components = new AnalysisComponents();
+        docs = BenchmarkCorpus.generate(BenchmarkCorpus.DEFAULT_SEED, 100, docLength);
+        docBytes = BenchmarkCorpus.byteLengths(docs);
+        switch (chain) {
+        case "japanese":
+            analyzer = components.analyzer(new String[] { "iteration_mark", "prolonged_sound_mark" }, "japanese_tokenizer",
+                    new String[] { "japanese_baseform", "japanese_part_of_speech", "japanese_stemmer", "japanese_number", "japanese_stop" });
+            break;
+        case "japanese_concat":
+            analyzer = components.analyzer(new String[] { "japanese_iteration_mark" }, "japanese_tokenizer",
+                    new String[] { "kanji_number", "kuromoji_pos_concat", "number_concat", "pattern_concat", "char_type" });
+            break;
+        case "japanese_english":
+            analyzer = components.analyzer(new String[0], "japanese_tokenizer", new String[] { "alphanum_word", "reloadable_keyword_marker",
+                    "flexible_porter_stem", "reloadable_stop", "stop_prefix", "stop_suffix" });
+            break;
+        case "ngram_synonym":
+            analyzer = components.analyzer(new String[] { "prolonged_sound_mark" }, "ngram_synonym", new String[0]);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown chain: " + chain);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        analyzer.close();
+        components.close();
+    }
+
+    @Benchmark
+    public void analyze(final AnalysisCounters counters, final Blackhole bh) throws IOException {
+        final int index = docIndex++ % docs.length;
+        long tokens = 0;
+        try (TokenStream stream = analyzer.tokenStream("f", docs[index])) {
+            final CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                bh.consume(termAtt.length());
+                tokens++;
+            }
+            stream.end();
+        }
+        counters.tokens += tokens;
+        counters.bytes += docBytes[index];
+    }
+}
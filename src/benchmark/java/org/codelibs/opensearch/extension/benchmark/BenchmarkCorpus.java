@@ -0,0 +1,151 @@
+package org.codelibs.opensearch.extension.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Reproducible Japanese/English mixed text used by the benchmarks.
+ * The same seed always produces the same documents.
+ */
+public final class BenchmarkCorpus {
+
+    public static final long DEFAULT_SEED = 20111201L;
+
+    private static final String[] NOUNS = { "東京", "大阪", "会社", "社員", "情報", "検索", "全文", "形態素", "解析", "辞書", "日本語", "文章", "言語",
+            "処理", "研究", "開発", "時間", "人々", "山々", "学問", "商品", "価格", "在庫", "注文", "配送", "天気", "新聞", "政府", "経済", "市場" };
+
+    private static final String[] KATAKANA_WORDS = { "コンピューター", "サーバー", "ユーザー", "データベース", "インデックス", "プリンター", "マネージャー", "エディター",
+            "スマートフォン", "ソフトウェア", "ネットワーク", "クラスター", "トークナイザー", "フィルター", "アナライザー", "コンピュータ", "サーバ", "ユーザ" };
+
+    private static final String[] VERBS = { "検索する", "解析した", "開発している", "使われる", "見つけた", "登録します", "確認できる", "読んだ", "書きました",
+            "走っている", "届けられた", "考えます" };
+
+    private static final String[] ADJECTIVES = { "新しい", "大きな", "速い", "便利な", "重要な", "古い", "美しい", "難しい" };
+
+    private static final String[] PARTICLES = { "は", "が", "を", "に", "で", "と", "の", "へ", "から", "まで", "も" };
+
+    private static final String[] ITERATION_MARK_WORDS = { "学問のすゝめ", "いすゞ", "こゝろ", "ぶゞ漬け", "時々", "佐々木", "々" };
+
+    private static final String[] KANJI_NUMBERS = { "一", "二", "三", "十", "百", "千", "二千十五", "三百五十", "一万", "五億" };
+
+    private static final String[] COUNTERS = { "年", "月", "日", "人", "個", "円", "回", "件", "時", "分" };
+
+    private static final String[] ENGLISH_WORDS = { "search", "engine", "analysis", "tokenizer", "running", "indexing", "OpenSearch", "Lucene",
+            "synonym", "dictionary", "quickly", "connection", "generalizations", "the", "a", "of", "and", "to", "in", "is", "stopwords",
+            "keywords", "computers", "happiness" };
+
+    private static final String[] PROLONGED_SOUND_MARKS = { "-", "－", "‐", "‑", "‒", "–", "—", "―", "⁻", "₋", "ー" };
+
+    private static final String[] SENTENCE_ENDS = { "。", "！", "？", ".", "\n" };
+
+    private BenchmarkCorpus() {
+        // nothing
+    }
+
+    /**
+     * Generates documents with about {@code docLength} chars each.
+     */
+    public static String[] generate(final long seed, final int numDocs, final int docLength) {
+        final Random random = new Random(seed);
+        final String[] docs = new String[numDocs];
+        final StringBuilder buf = new StringBuilder(docLength + 100);
+        for (int i = 0; i < numDocs; i++) {
+            buf.setLength(0);
+            while (buf.length() < docLength) {
+                appendSentence(random, buf);
+            }
+            docs[i] = buf.toString();
+        }
+        return docs;
+    }
+
+    /**
+     * Returns UTF-8 byte sizes of the given documents.
+     */
+    public static int[] byteLengths(final String[] docs) {
+        final int[] lengths = new int[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+            lengths[i] = docs[i].getBytes(StandardCharsets.UTF_8).length;
+        }
+        return lengths;
+    }
+
+    private static void appendSentence(final Random random, final StringBuilder buf) {
+        if (random.nextInt(5) == 0) {
+            // English sentence
+            final int words = 4 + random.nextInt(10);
+            for (int i = 0; i < words; i++) {
+                if (i > 0) {
+                    buf.append(' ');
+                }
+                if (random.nextInt(8) == 0) {
+                    buf.append(pick(random, ENGLISH_WORDS).toUpperCase()).append('-').append(random.nextInt(1000));
+                } else {
+                    buf.append(pick(random, ENGLISH_WORDS));
+                }
+            }
+            buf.append(random.nextBoolean() ? ". " : "\n");
+            return;
+        }
+
+        final int phrases = 2 + random.nextInt(6);
+        for (int i = 0; i < phrases; i++) {
+            switch (random.nextInt(8)) {
+            case 0:
+                buf.append(pick(random, KATAKANA_WORDS));
+                break;
+            case 1:
+                // katakana with a variant of the prolonged sound mark
+                buf.append(pick(random, KATAKANA_WORDS).replace("ー", pick(random, PROLONGED_SOUND_MARKS)));
+                break;
+            case 2:
+                buf.append(pick(random, ITERATION_MARK_WORDS));
+                break;
+            case 3:
+                buf.append(pick(random, KANJI_NUMBERS)).append(pick(random, COUNTERS));
+                break;
+            case 4:
+                buf.append(random.nextInt(10000)).append(pick(random, COUNTERS));
+                break;
+            case 5:
+                buf.append(pick(random, ADJECTIVES)).append(pick(random, NOUNS));
+                break;
+            case 6:
+                buf.append(' ').append(pick(random, ENGLISH_WORDS)).append(' ');
+                break;
+            default:
+                buf.append(pick(random, NOUNS));
+                break;
+            }
+            buf.append(pick(random, PARTICLES));
+            if (random.nextInt(4) == 0) {
+                buf.append('、');
+            }
+        }
+        buf.append(pick(random, NOUNS)).append(pick(random, PARTICLES)).append(pick(random, VERBS));
+        buf.append(pick(random, SENTENCE_ENDS));
+    }
+
+    private static String pick(final Random random, final String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Words which appear in the corpus, used to build synonym, stopword and keyword files.
+     */
+    static String[] nouns() {
+        return NOUNS.clone();
+    }
+
+    static String[] katakanaWords() {
+        return KATAKANA_WORDS.clone();
+    }
+
+    static String[] englishWords() {
+        return ENGLISH_WORDS.clone();
+    }
+
+    static String[] counters() {
+        return COUNTERS.clone();
+    }
+}
@@ -0,0 +1,76 @@
+package org.codelibs.opensearch.extension.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.opensearch.index.analysis.CharFilterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the char filters registered by the plugin. One operation reads one document through the filter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CharFilterBenchmark {
+
+    @Param({ "iteration_mark", "prolonged_sound_mark", "japanese_iteration_mark" })
+    public String charFilter;
+
+    @Param({ "2000" })
+    public int docLength;
+
+    private AnalysisComponents components;
+
+    private CharFilterFactory factory;
+
+    private String[] docs;
+
+    private int[] docBytes;
+
+    private final char[] buffer = new char[1024];
+
+    private int docIndex;
+
+    @Setup
+    public void setup() throws IOException {
+        components = new AnalysisComponents();
+        factory = components.charFilter(charFilter);
+        docs = BenchmarkCorpus.generate(BenchmarkCorpus.DEFAULT_SEED, 100, docLength);
+        docBytes = BenchmarkCorpus.byteLengths(docs);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        components.close();
+    }
+
+    @Benchmark
+    public void filter(final AnalysisCounters counters, final Blackhole bh) throws IOException {
+        final int index = docIndex++ % docs.length;
+        try (Reader reader = factory.create(new StringReader(docs[index]))) {
+            int len;
+            while ((len = reader.read(buffer, 0, buffer.length)) != -1) {
+                bh.consume(len);
+            }
+        }
+        counters.bytes += docBytes[index];
+    }
+}
@@ -0,0 +1,42 @@
+package org.codelibs.opensearch.extension.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.util.AttributeSource;
+
+/**
+ * Replays token states captured from a tokenizer, so that token filters can be
+ * measured without the cost of the tokenizer in front of them.
+ */
+final class ReplayTokenStream extends TokenStream {
+
+    private List<AttributeSource.State> states;
+
+    private int upto;
+
+    ReplayTokenStream(final AttributeSource source) {
+        super(source);
+    }
+
+    void setStates(final List<AttributeSource.State> states) {
+        this.states = states;
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        if (upto >= states.size()) {
+            return false;
+        }
+        clearAttributes();
+        restoreState(states.get(upto++));
+        return true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        upto = 0;
+    }
+}
@@ -0,0 +1,108 @@
+package org.codelibs.opensearch.extension.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.util.AttributeSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the token filters registered by the plugin. Tokens are produced by
+ * japanese_tokenizer once in the setup and replayed, so only the filter is measured.
+ * One operation filters the tokens of one document.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenFilterBenchmark {
+
+    @Param({ "japanese_baseform", "japanese_part_of_speech", "japanese_readingform", "japanese_stemmer", "japanese_stop",
+            "japanese_number", "japanese_completion", "kanji_number", "kuromoji_pos_concat", "char_type", "number_concat",
+            "pattern_concat", "stop_prefix", "stop_suffix", "reloadable_keyword_marker", "reloadable_stop", "flexible_porter_stem",
+            "alphanum_word" })
+    public String tokenFilter;
+
+    @Param({ "2000" })
+    public int docLength;
+
+    private AnalysisComponents components;
+
+    private int[] docBytes;
+
+    private List<List<AttributeSource.State>> docStates;
+
+    private ReplayTokenStream replay;
+
+    private TokenStream stream;
+
+    private CharTermAttribute termAtt;
+
+    private int docIndex;
+
+    @Setup
+    public void setup() throws IOException {
+        components = new AnalysisComponents();
+        final String[] docs = BenchmarkCorpus.generate(BenchmarkCorpus.DEFAULT_SEED, 100, docLength);
+        docBytes = BenchmarkCorpus.byteLengths(docs);
+
+        final Tokenizer tokenizer = components.tokenizer("japanese_tokenizer").create();
+        replay = new ReplayTokenStream(tokenizer);
+        stream = components.tokenFilter(tokenFilter).create(replay);
+        termAtt = stream.addAttribute(CharTermAttribute.class);
+
+        docStates = new ArrayList<>(docs.length);
+        for (final String doc : docs) {
+            final List<AttributeSource.State> states = new ArrayList<>();
+            tokenizer.setReader(new StringReader(doc));
+            tokenizer.reset();
+            while (tokenizer.incrementToken()) {
+                states.add(tokenizer.captureState());
+            }
+            tokenizer.end();
+            tokenizer.close();
+            docStates.add(states);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        components.close();
+    }
+
+    @Benchmark
+    public void filter(final AnalysisCounters counters, final Blackhole bh) throws IOException {
+        final int index = docIndex++ % docStates.size();
+        replay.setStates(docStates.get(index));
+        stream.reset();
+        long tokens = 0;
+        while (stream.incrementToken()) {
+            bh.consume(termAtt.length());
+            tokens++;
+        }
+        stream.end();
+        stream.close();
+        counters.tokens += tokens;
+        counters.bytes += docBytes[index];
+    }
+}
@@ -0,0 +1,81 @@
+package org.codelibs.opensearch.extension.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the tokenizers registered by the plugin. One operation tokenizes one document.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+    @Param({ "japanese_tokenizer", "ngram_synonym" })
+    public String tokenizer;
+
+    @Param({ "2000" })
+    public int docLength;
+
+    private AnalysisComponents components;
+
+    private String[] docs;
+
+    private int[] docBytes;
+
+    private Tokenizer source;
+
+    private CharTermAttribute termAtt;
+
+    private int docIndex;
+
+    @Setup
+    public void setup() throws IOException {
+        components = new AnalysisComponents();
+        docs = BenchmarkCorpus.generate(BenchmarkCorpus.DEFAULT_SEED, 100, docLength);
+        docBytes = BenchmarkCorpus.byteLengths(docs);
+        source = components.tokenizer(tokenizer).create();
+        termAtt = source.addAttribute(CharTermAttribute.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        components.close();
+    }
+
+    @Benchmark
+    public void tokenize(final AnalysisCounters counters, final Blackhole bh) throws IOException {
+        final int index = docIndex++ % docs.length;
+        source.setReader(new StringReader(docs[index]));
+        source.reset();
+        long tokens = 0;
+        while (source.incrementToken()) {
+            bh.consume(termAtt.length());
+            tokens++;
+        }
+        source.end();
+        source.close();
+        counters.tokens += tokens;
+        counters.bytes += docBytes[index];
+    }
+}
@@ -1,10 +1,19 @@
 package org.codelibs.opensearch.extension;
 
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.ja.JapaneseAnalyzer;
+import org.apache.lucene.analysis.ja.JapaneseCompletionAnalyzer;
+import org.codelibs.opensearch.extension.action.AnalysisExtensionStatsAction;
+import org.codelibs.opensearch.extension.action.TransportAnalysisExtensionStatsAction;
 import org.codelibs.opensearch.extension.analysis.AlphaNumWordFilterFactory;
 import org.codelibs.opensearch.extension.analysis.CharTypeFilterFactory;
+import org.codelibs.opensearch.extension.analysis.CompiledSynonymCache;
 import org.codelibs.opensearch.extension.analysis.FlexiblePorterStemFilterFactory;
 import org.codelibs.opensearch.extension.analysis.IterationMarkCharFilterFactory;
 import org.codelibs.opensearch.extension.analysis.KanjiNumberFilterFactory;
@@ -17,8 +26,11 @@ import org.codelibs.opensearch.extension.analysis.ReloadableKeywordMarkerFilterF
 import org.codelibs.opensearch.extension.analysis.ReloadableStopFilterFactory;
 import org.codelibs.opensearch.extension.analysis.StopTokenPrefixFilterFactory;
 import org.codelibs.opensearch.extension.analysis.StopTokenSuffixFilterFactory;
+import org.codelibs.opensearch.extension.kuromoji.index.analysis.JapaneseFusedFilterFactory;
 import org.codelibs.opensearch.extension.kuromoji.index.analysis.JapaneseStopTokenFilterFactory;
+import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiAnalyzerProvider;
 import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiBaseFormFilterFactory;
+import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiCompletionAnalyzerProvider;
 import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiCompletionFilterFactory;
 import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiIterationMarkCharFilterFactory;
 import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiKatakanaStemmerFactory;
@@ -26,14 +38,103 @@ import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiNumberF
 import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiPartOfSpeechFilterFactory;
 import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiReadingFormFilterFactory;
 import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiTokenizerFactory;
+import org.codelibs.opensearch.extension.kuromoji.index.analysis.ReloadableKuromojiTokenizerFactory;
+import org.codelibs.opensearch.extension.rest.RestAnalysisExtensionStatsAction;
+import org.codelibs.opensearch.extension.stats.AnalysisStats;
+import org.codelibs.opensearch.extension.stats.InstrumentedFactories;
+import org.codelibs.opensearch.extension.warmup.AnalyzerWarmer;
+import org.opensearch.action.ActionRequest;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.node.DiscoveryNodes;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.IndexScopedSettings;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.settings.SettingsFilter;
+import org.opensearch.core.action.ActionResponse;
+import org.opensearch.core.index.Index;
+import org.opensearch.index.IndexModule;
+import org.opensearch.index.IndexService;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.analysis.AnalyzerProvider;
 import org.opensearch.index.analysis.CharFilterFactory;
 import org.opensearch.index.analysis.TokenFilterFactory;
 import org.opensearch.index.analysis.TokenizerFactory;
+import org.opensearch.index.shard.IndexEventListener;
 import org.opensearch.indices.analysis.AnalysisModule.AnalysisProvider;
+import org.opensearch.indices.analysis.PreBuiltCacheFactory.CachingStrategy;
+import org.opensearch.index.analysis.NamedAnalyzer;
+import org.opensearch.index.analysis.PreBuiltAnalyzerProviderFactory;
+import org.opensearch.indices.cluster.IndicesClusterStateService.AllocatedIndices.IndexRemovalReason;
+import org.opensearch.plugins.ActionPlugin;
 import org.opensearch.plugins.AnalysisPlugin;
 import org.opensearch.plugins.Plugin;
+import org.opensearch.rest.RestController;
+import org.opensearch.rest.RestHandler;
 
-public class ExtensionPlugin extends Plugin implements AnalysisPlugin {
+public class ExtensionPlugin extends Plugin implements AnalysisPlugin, ActionPlugin {
+
+    private final Path configPath;
+
+    public ExtensionPlugin(final Settings settings, final Path configPath) {
+        this.configPath = configPath;
+    }
+
+    @Override
+    public List<Setting<?>> getSettings() {
+        return List.of(AnalysisStats.STATS_ENABLED, AnalyzerWarmer.WARMUP_ENABLED, AnalyzerWarmer.WARMUP_CORPUS,
+                AnalyzerWarmer.WARMUP_ITERATIONS, CompiledSynonymCache.ENABLED, CompiledSynonymCache.EXPIRE,
+                CompiledSynonymCache.MAX_FILES);
+    }
+
+    @Override
+    public void onIndexModule(final IndexModule indexModule) {
+        indexModule.addIndexEventListener(new IndexEventListener() {
+            private AnalyzerWarmer warmer;
+
+            @Override
+            public void afterIndexCreated(final IndexService indexService) {
+                AnalysisStats.getInstance().registerIndex(indexService.index());
+                final Settings settings = indexService.getIndexSettings().getSettings();
+                if (!AnalyzerWarmer.WARMUP_ENABLED.get(settings)) {
+                    return;
+                }
+                final Map<String, NamedAnalyzer> analyzers = indexService.getIndexAnalyzers().getAnalyzers();
+                final String corpus = AnalyzerWarmer.WARMUP_CORPUS.get(settings);
+                final AnalyzerWarmer analyzerWarmer = new AnalyzerWarmer(indexService.index().getName(),
+                        AnalyzerWarmer.selectAnalyzers(analyzers), corpus.isEmpty() ? null : AnalyzerWarmer.resolveCorpus(configPath, corpus),
+                        AnalyzerWarmer.WARMUP_ITERATIONS.get(settings));
+                if (!analyzerWarmer.isEmpty()) {
+                    warmer = analyzerWarmer;
+                    indexService.getThreadPool().generic().execute(analyzerWarmer);
+                }
+            }
+
+            @Override
+            public void beforeIndexRemoved(final IndexService indexService, final IndexRemovalReason reason) {
+                if (warmer != null) {
+                    warmer.cancel();
+                }
+            }
+
+            @Override
+            public void afterIndexRemoved(final Index index, final IndexSettings indexSettings, final IndexRemovalReason reason) {
+                AnalysisStats.getInstance().removeIndex(index);
+            }
+        });
+    }
+
+    @Override
+    public List<ActionHandler<? extends ActionRequest, ? extends ActionResponse>> getActions() {
+        return List.of(new ActionHandler<>(AnalysisExtensionStatsAction.INSTANCE, TransportAnalysisExtensionStatsAction.class));
+    }
+
+    @Override
+    public List<RestHandler> getRestHandlers(final Settings settings, final RestController restController,
+            final ClusterSettings clusterSettings, final IndexScopedSettings indexScopedSettings, final SettingsFilter settingsFilter,
+            final IndexNameExpressionResolver indexNameExpressionResolver, final Supplier<DiscoveryNodes> nodesInCluster) {
+        return List.of(new RestAnalysisExtensionStatsAction());
+    }
 
     @Override
     public Map<String, AnalysisProvider<CharFilterFactory>> getCharFilters() {
@@ -43,7 +144,7 @@ public class ExtensionPlugin extends Plugin implements AnalysisPlugin {
         extra.put("japanese_iteration_mark", KuromojiIterationMarkCharFilterFactory::new);
         // remove the following char filters
         extra.put("reloadable_kuromoji_iteration_mark", KuromojiIterationMarkCharFilterFactory::new);
-        return extra;
+        return InstrumentedFactories.charFilters(extra);
     }
 
     @Override
@@ -56,6 +157,7 @@ public class ExtensionPlugin extends Plugin implements AnalysisPlugin {
         extra.put("japanese_stop", JapaneseStopTokenFilterFactory::new);
         extra.put("japanese_number", KuromojiNumberFilterFactory::new);
         extra.put("japanese_completion", KuromojiCompletionFilterFactory::new);
+        extra.put("japanese_fused", JapaneseFusedFilterFactory::new);
         extra.put("kanji_number", KanjiNumberFilterFactory::new);
         extra.put("kuromoji_pos_concat", PosConcatenationFilterFactory::new);
         extra.put("char_type", CharTypeFilterFactory::new);
@@ -74,7 +176,7 @@ public class ExtensionPlugin extends Plugin implements AnalysisPlugin {
         extra.put("reloadable_kuromoji_stemmer", KuromojiKatakanaStemmerFactory::new);
         extra.put("reloadable_kuromoji_number", KuromojiNumberFilterFactory::new);
         extra.put("reloadable_ja_stop", JapaneseStopTokenFilterFactory::new);
-        return extra;
+        return InstrumentedFactories.tokenFilters(extra);
     }
 
     @Override
@@ -82,10 +184,24 @@ public class ExtensionPlugin extends Plugin implements AnalysisPlugin {
         final Map<String, AnalysisProvider<TokenizerFactory>> extra = new HashMap<>();
         extra.put("japanese_tokenizer", KuromojiTokenizerFactory::new);
         extra.put("ngram_synonym", NGramSynonymTokenizerFactory::new);
-        // remove the following tokenizers
-        extra.put("reloadable_kuromoji_tokenizer", KuromojiTokenizerFactory::new);
-        extra.put("reloadable_kuromoji", KuromojiTokenizerFactory::new);
+        extra.put("reloadable_kuromoji_tokenizer", ReloadableKuromojiTokenizerFactory::new);
+        extra.put("reloadable_kuromoji", ReloadableKuromojiTokenizerFactory::new);
+        return InstrumentedFactories.tokenizers(extra);
+    }
+
+    @Override
+    public Map<String, AnalysisProvider<AnalyzerProvider<? extends Analyzer>>> getAnalyzers() {
+        final Map<String, AnalysisProvider<AnalyzerProvider<? extends Analyzer>>> extra = new HashMap<>();
+        extra.put("japanese_analyzer", KuromojiAnalyzerProvider::new);
+        extra.put("japanese_completion_analyzer", KuromojiCompletionAnalyzerProvider::new);
         return extra;
     }
 
+    @Override
+    public List<PreBuiltAnalyzerProviderFactory> getPreBuiltAnalyzerProviderFactories() {
+        // one analyzer with the default settings, shared by all indices on the node
+        return List.of(new PreBuiltAnalyzerProviderFactory("japanese_analyzer", CachingStrategy.ONE, JapaneseAnalyzer::new),
+                new PreBuiltAnalyzerProviderFactory("japanese_completion_analyzer", CachingStrategy.ONE, JapaneseCompletionAnalyzer::new));
+    }
+
 }
@@ -0,0 +1,46 @@
+package org.codelibs.opensearch.extension.action;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+/**
+ * Analysis component stats of one node, by index.
+ */
+public class AnalysisExtensionNodeStats extends BaseNodeResponse implements ToXContentFragment {
+
+    private final Map<String, Object> indices;
+
+    public AnalysisExtensionNodeStats(final DiscoveryNode node, final Map<String, Object> indices) {
+        super(node);
+        this.indices = indices;
+    }
+
+    public AnalysisExtensionNodeStats(final StreamInput in) throws IOException {
+        super(in);
+        indices = in.readMap();
+    }
+
+    public Map<String, Object> getIndices() {
+        return indices;
+    }
+
+    @Override
+    public void writeTo(final StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeMap(indices);
+    }
+
+    @Override
+    public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+        builder.field("name", getNode().getName());
+        builder.field("indices", indices);
+        return builder;
+    }
+}
@@ -0,0 +1,17 @@
+package org.codelibs.opensearch.extension.action;
+
+import org.opensearch.action.ActionType;
+
+/**
+ * Collects the analysis component stats of the nodes.
+ */
+public class AnalysisExtensionStatsAction extends ActionType<AnalysisExtensionStatsResponse> {
+
+    public static final AnalysisExtensionStatsAction INSTANCE = new AnalysisExtensionStatsAction();
+
+    public static final String NAME = "cluster:monitor/analysis_extension/stats";
+
+    private AnalysisExtensionStatsAction() {
+        super(NAME, AnalysisExtensionStatsResponse::new);
+    }
+}
@@ -0,0 +1,39 @@
+package org.codelibs.opensearch.extension.action;
+
+import java.io.IOException;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+
+/**
+ * Request of the stats of the given indices, or of all indices if none is given, on the given nodes.
+ */
+public class AnalysisExtensionStatsRequest extends BaseNodesRequest<AnalysisExtensionStatsRequest> {
+
+    private String[] indices = new String[0];
+
+    public AnalysisExtensionStatsRequest(final String... nodesIds) {
+        super(nodesIds);
+    }
+
+    public AnalysisExtensionStatsRequest(final StreamInput in) throws IOException {
+        super(in);
+        indices = in.readStringArray();
+    }
+
+    public String[] indices() {
+        return indices;
+    }
+
+    public AnalysisExtensionStatsRequest indices(final String... indices) {
+        this.indices = indices;
+        return this;
+    }
+
+    @Override
+    public void writeTo(final StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeStringArray(indices);
+    }
+}
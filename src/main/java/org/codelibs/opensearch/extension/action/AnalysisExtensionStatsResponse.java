@@ -0,0 +1,48 @@
+package org.codelibs.opensearch.extension.action;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+/**
+ * Analysis component stats of the nodes, by node id.
+ */
+public class AnalysisExtensionStatsResponse extends BaseNodesResponse<AnalysisExtensionNodeStats> implements ToXContentFragment {
+
+    public AnalysisExtensionStatsResponse(final StreamInput in) throws IOException {
+        super(in);
+    }
+
+    public AnalysisExtensionStatsResponse(final ClusterName clusterName, final List<AnalysisExtensionNodeStats> nodes,
+            final List<FailedNodeException> failures) {
+        super(clusterName, nodes, failures);
+    }
+
+    @Override
+    protected List<AnalysisExtensionNodeStats> readNodesFrom(final StreamInput in) throws IOException {
+        return in.readList(AnalysisExtensionNodeStats::new);
+    }
+
+    @Override
+    protected void writeNodesTo(final StreamOutput out, final List<AnalysisExtensionNodeStats> nodes) throws IOException {
+        out.writeList(nodes);
+    }
+
+    @Override
+    public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+        builder.startObject("nodes");
+        for (final AnalysisExtensionNodeStats node : getNodes()) {
+            builder.startObject(node.getNode().getId());
+            node.toXContent(builder, params);
+            builder.endObject();
+        }
+        return builder.endObject();
+    }
+}
@@ -0,0 +1,70 @@
+package org.codelibs.opensearch.extension.action;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.codelibs.opensearch.extension.stats.AnalysisStats;
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportRequest;
+import org.opensearch.transport.TransportService;
+
+/**
+ * Reads the {@link AnalysisStats} of each node.
+ */
+public class TransportAnalysisExtensionStatsAction extends TransportNodesAction<AnalysisExtensionStatsRequest, AnalysisExtensionStatsResponse,
+        TransportAnalysisExtensionStatsAction.NodeRequest, AnalysisExtensionNodeStats> {
+
+    @Inject
+    public TransportAnalysisExtensionStatsAction(final ThreadPool threadPool, final ClusterService clusterService,
+            final TransportService transportService, final ActionFilters actionFilters) {
+        super(AnalysisExtensionStatsAction.NAME, threadPool, clusterService, transportService, actionFilters,
+                AnalysisExtensionStatsRequest::new, NodeRequest::new, ThreadPool.Names.MANAGEMENT, AnalysisExtensionNodeStats.class);
+    }
+
+    @Override
+    protected AnalysisExtensionStatsResponse newResponse(final AnalysisExtensionStatsRequest request,
+            final List<AnalysisExtensionNodeStats> responses, final List<FailedNodeException> failures) {
+        return new AnalysisExtensionStatsResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected NodeRequest newNodeRequest(final AnalysisExtensionStatsRequest request) {
+        return new NodeRequest(request.indices());
+    }
+
+    @Override
+    protected AnalysisExtensionNodeStats newNodeResponse(final StreamInput in) throws IOException {
+        return new AnalysisExtensionNodeStats(in);
+    }
+
+    @Override
+    protected AnalysisExtensionNodeStats nodeOperation(final NodeRequest request) {
+        return new AnalysisExtensionNodeStats(clusterService.localNode(), AnalysisStats.getInstance().toMap(request.indices));
+    }
+
+    public static class NodeRequest extends TransportRequest {
+        private final String[] indices;
+
+        NodeRequest(final String[] indices) {
+            this.indices = indices;
+        }
+
+        NodeRequest(final StreamInput in) throws IOException {
+            super(in);
+            indices = in.readStringArray();
+        }
+
+        @Override
+        public void writeTo(final StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeStringArray(indices);
+        }
+    }
+}
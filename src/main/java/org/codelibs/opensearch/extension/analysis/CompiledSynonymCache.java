@@ -0,0 +1,164 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Setting.Property;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.env.Environment;
+import org.opensearch.secure_sm.AccessController;
+
+/**
+ * Persistent cache of synonym maps built from text rules, stored under the first data path of the node
+ * in the format of {@link SynonymMapCompiler}. A file is named by the hash of the rules and the options,
+ * so a node restart loads the FST from the file instead of parsing the rules again, and changed rules never
+ * match a stale file. Files which are not used for {@link #EXPIRE} are removed when the node first uses the cache
+ * and after each write, which also removes the least recently used files beyond {@link #MAX_FILES}, so that
+ * frequently edited rules do not fill the data path.
+ * The checksum of a whole file is verified only the first time the node loads it, and later loads check the header and footer.
+ */
+public final class CompiledSynonymCache {
+    private static final Logger logger = LogManager.getLogger(CompiledSynonymCache.class);
+
+    public static final Setting<Boolean> ENABLED = Setting.boolSetting("analysis_extension.compiled_cache.enabled", true,
+            Property.NodeScope);
+
+    public static final Setting<TimeValue> EXPIRE = Setting.timeSetting("analysis_extension.compiled_cache.expire",
+            TimeValue.timeValueDays(30), Property.NodeScope);
+
+    public static final Setting<Integer> MAX_FILES = Setting.intSetting("analysis_extension.compiled_cache.max_files", 100, 1,
+            Property.NodeScope);
+
+    static final String DIRECTORY = "analysis_extension_cache";
+
+    private static final String SUFFIX = ".syn";
+
+    private static final Set<Path> prunedDirs = ConcurrentHashMap.newKeySet();
+
+    private static final Set<Path> verifiedFiles = ConcurrentHashMap.newKeySet();
+
+    private CompiledSynonymCache() {
+        // nothing
+    }
+
+    /**
+     * Returns the cached map for the rules and options, or builds and stores it.
+     * Any failure of the cache is logged, and the map is built from the rules then, so that the cache never breaks analysis.
+     */
+    public static SynonymMap get(final Environment env, final String rules, final String format, final boolean expand,
+            final boolean ignoreCase, final RefCountedCache.Loader<SynonymMap, Exception> builder) throws Exception {
+        final String name = getKey(rules, format, expand, ignoreCase) + SUFFIX;
+        final SynonymMap cached = load(env, name, expand, ignoreCase);
+        if (cached != null) {
+            return cached;
+        }
+        final SynonymMap synonymMap = builder.load();
+        store(env, name, synonymMap, format, expand, ignoreCase);
+        return synonymMap;
+    }
+
+    private static SynonymMap load(final Environment env, final String name, final boolean expand, final boolean ignoreCase) {
+        try {
+            return AccessController.doPrivilegedChecked(() -> {
+                final Path dir = getDirectory(env);
+                if (dir == null) {
+                    return null;
+                }
+                final Path file = dir.resolve(name);
+                if (!Files.isRegularFile(file)) {
+                    return null;
+                }
+                final SynonymMap synonymMap = SynonymMapCompiler.load(file, expand, ignoreCase, !verifiedFiles.contains(file));
+                verifiedFiles.add(file);
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                return synonymMap;
+            });
+        } catch (final Exception e) {
+            logger.warn("Failed to load {} from the compiled synonym cache. The synonyms are rebuilt.", name, e);
+            return null;
+        }
+    }
+
+    private static void store(final Environment env, final String name, final SynonymMap synonymMap, final String format,
+            final boolean expand, final boolean ignoreCase) {
+        try {
+            AccessController.doPrivilegedChecked(() -> {
+                final Path dir = getDirectory(env);
+                if (dir != null) {
+                    Files.createDirectories(dir);
+                    verifiedFiles.remove(dir.resolve(name));
+                    SynonymMapCompiler.write(synonymMap, format, expand, ignoreCase, dir.resolve(name));
+                    prune(dir, EXPIRE.get(env.settings()).millis(), MAX_FILES.get(env.settings()));
+                }
+            });
+        } catch (final Exception e) {
+            logger.warn("Failed to write {} to the compiled synonym cache.", name, e);
+        }
+    }
+
+    static Path getDirectory(final Environment env) {
+        if (!ENABLED.get(env.settings())) {
+            return null;
+        }
+        final Path[] dataFiles = env.dataFiles();
+        if (dataFiles == null || dataFiles.length == 0) {
+            return null;
+        }
+        final Path dir = dataFiles[0].resolve(DIRECTORY).resolve("synonyms");
+        if (prunedDirs.add(dir)) {
+            prune(dir, EXPIRE.get(env.settings()).millis(), MAX_FILES.get(env.settings()));
+        }
+        return dir;
+    }
+
+    /**
+     * Removes the files which have not been used for the given time, and the least recently used files beyond the given count.
+     */
+    static synchronized void prune(final Path dir, final long expireMillis, final int maxFiles) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        final long threshold = System.currentTimeMillis() - expireMillis;
+        final List<Path> files = new ArrayList<>();
+        final Map<Path, Long> lastModified = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (final Path file : stream) {
+                final long time = Files.getLastModifiedTime(file).toMillis();
+                if (time < threshold) {
+                    Files.deleteIfExists(file);
+                    verifiedFiles.remove(file);
+                } else {
+                    files.add(file);
+                    lastModified.put(file, time);
+                }
+            }
+            if (files.size() > maxFiles) {
+                files.sort(Comparator.comparing(lastModified::get));
+                for (final Path file : files.subList(0, files.size() - maxFiles)) {
+                    Files.deleteIfExists(file);
+                    verifiedFiles.remove(file);
+                }
+            }
+        } catch (final IOException e) {
+            logger.warn("Failed to remove expired files in {}.", dir, e);
+        }
+    }
+
+    static String getKey(final String rules, final String format, final boolean expand, final boolean ignoreCase) {
+        return Digests.sha256Hex(SynonymMapCompiler.VERSION_CURRENT + ":" + format + ":" + expand + ":" + ignoreCase + "\n", rules);
+    }
+}
@@ -0,0 +1,352 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Node-wide watcher for reloadable dictionary files.
+ * Each path is tracked once, however many analysis components use it. Changes are detected
+ * by {@link WatchService}, where any event in the directory of a file triggers a check of the file, so that a
+ * replaced symbolic link such as the "..data" link of a Kubernetes ConfigMap is seen. The file is also polled,
+ * as a safety net for changes the directory does not report, e.g. to the target of a link to another directory.
+ * In both cases a burst of writes results in one notification after the file stays quiet for the debounce time.
+ * Subscribers are notified on the watcher's thread and are held weakly. Released subscribers are pruned
+ * whenever a file is polled or checked and whenever a new subscription is made.
+ */
+public final class DictionaryWatcher {
+
+    private static final Logger logger = LogManager.getLogger(DictionaryWatcher.class);
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    private static final long MIN_POLL_INTERVAL = 100;
+
+    private static final DictionaryWatcher INSTANCE = new DictionaryWatcher(DEFAULT_DEBOUNCE_MILLIS, false);
+
+    private final long debounceMillis;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final WatchService watchService;
+
+    private final Map<Path, WatchedFile> files = new HashMap<>();
+
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+
+    DictionaryWatcher(final long debounceMillis, final boolean polling) {
+        this.debounceMillis = debounceMillis;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "analysis-extension-dictionary-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchService = polling ? null : newWatchService();
+        if (watchService != null) {
+            final Thread thread = new Thread(this::processEvents, "analysis-extension-dictionary-events");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public static DictionaryWatcher getInstance() {
+        return INSTANCE;
+    }
+
+    private static WatchService newWatchService() {
+        try {
+            return FileSystems.getDefault().newWatchService();
+        } catch (final IOException | UnsupportedOperationException e) {
+            logger.warn("File watching is not available. Dictionary files are polled.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Calls the listener with the subscriber when the file is changed.
+     * The listener must not capture the subscriber, which is released when it is not referenced elsewhere.
+     *
+     * @param path the file to watch
+     * @param pollInterval the interval to poll the file, which is a safety net if the file is also watched
+     * @param subscriber the object to be notified
+     * @param listener the callback
+     * @return the subscription to cancel
+     */
+    public <T> Subscription subscribe(final Path path, final long pollInterval, final T subscriber, final Consumer<T> listener) {
+        final Path file = path.toAbsolutePath().normalize();
+        final Listener<T> entry = new Listener<>(subscriber, listener);
+        synchronized (this) {
+            pruneReleased();
+            WatchedFile watchedFile = files.get(file);
+            if (watchedFile == null) {
+                watchedFile = new WatchedFile(file);
+                files.put(file, watchedFile);
+                watchDirectory(file.getParent());
+                watchedFile.poll(pollInterval);
+            } else if (watchedFile.pollInterval > pollInterval) {
+                watchedFile.poll(pollInterval);
+            }
+            watchedFile.listeners.add(entry);
+        }
+        return new Subscription(this, file, entry);
+    }
+
+    /**
+     * Runs the task on the watcher thread, so that it never runs concurrently with change notifications.
+     */
+    public ScheduledFuture<?> schedule(final Runnable task, final long delay) {
+        return scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized boolean isWatched(final Path path) {
+        return files.containsKey(path.toAbsolutePath().normalize());
+    }
+
+    private void watchDirectory(final Path dir) {
+        if (watchService == null || dir == null || directories.containsKey(dir)) {
+            return;
+        }
+        try {
+            directories.put(dir, dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE));
+        } catch (final IOException | UnsupportedOperationException e) {
+            logger.warn("Failed to watch {}. Dictionary files in it are only polled.", dir, e);
+        }
+    }
+
+    private synchronized void unsubscribe(final Path file, final Listener<?> listener) {
+        final WatchedFile watchedFile = files.get(file);
+        if (watchedFile != null) {
+            watchedFile.listeners.remove(listener);
+            if (watchedFile.listeners.isEmpty()) {
+                untrack(watchedFile);
+            }
+        }
+    }
+
+    private void pruneReleased() {
+        for (final WatchedFile watchedFile : List.copyOf(files.values())) {
+            watchedFile.pruneReleased();
+        }
+    }
+
+    private void untrack(final WatchedFile watchedFile) {
+        files.remove(watchedFile.path);
+        watchedFile.cancel();
+        final Path dir = watchedFile.path.getParent();
+        if (dir != null && files.keySet().stream().noneMatch(p -> dir.equals(p.getParent()))) {
+            final WatchKey key = directories.remove(dir);
+            if (key != null) {
+                key.cancel();
+            }
+        }
+    }
+
+    private void processEvents() {
+        while (true) {
+            final WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (final InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            final Path dir = (Path) key.watchable();
+            // the event may be on a link or a directory the file resolves through rather than on the file itself
+            if (!key.pollEvents().isEmpty()) {
+                synchronized (this) {
+                    files.values().stream().filter(f -> dir.equals(f.path.getParent())).forEach(WatchedFile::scheduleCheck);
+                }
+            }
+            key.reset();
+        }
+    }
+
+    public static final class Subscription implements AutoCloseable {
+        private final DictionaryWatcher watcher;
+
+        private final Path path;
+
+        private final Listener<?> listener;
+
+        Subscription(final DictionaryWatcher watcher, final Path path, final Listener<?> listener) {
+            this.watcher = watcher;
+            this.path = path;
+            this.listener = listener;
+        }
+
+        @Override
+        public void close() {
+            watcher.unsubscribe(path, listener);
+        }
+    }
+
+    private static final class Listener<T> {
+        private final WeakReference<T> subscriber;
+
+        private final Consumer<T> callback;
+
+        Listener(final T subscriber, final Consumer<T> callback) {
+            this.subscriber = new WeakReference<>(subscriber);
+            this.callback = callback;
+        }
+
+        boolean isReleased() {
+            return subscriber.get() == null;
+        }
+
+        boolean notifyChange() {
+            final T target = subscriber.get();
+            if (target == null) {
+                return false;
+            }
+            try {
+                callback.accept(target);
+            } catch (final Exception e) {
+                logger.warn("Failed to process a dictionary change.", e);
+            }
+            return true;
+        }
+    }
+
+    private final class WatchedFile {
+        private final Path path;
+
+        private final List<Listener<?>> listeners = new CopyOnWriteArrayList<>();
+
+        private long lastModified;
+
+        private long size;
+
+        private long polledModified;
+
+        private long polledSize;
+
+        private ScheduledFuture<?> checkFuture;
+
+        private ScheduledFuture<?> pollFuture;
+
+        private long pollInterval;
+
+        WatchedFile(final Path path) {
+            this.path = path;
+            updateAttributes();
+            polledModified = lastModified;
+            polledSize = size;
+        }
+
+        /**
+         * Returns the modification time and the size of the file, (0, -1) if it does not exist, or null if they cannot be read.
+         */
+        private long[] readAttributes() {
+            try {
+                final BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                return new long[] { attrs.lastModifiedTime().toMillis(), attrs.size() };
+            } catch (final NoSuchFileException e) {
+                return new long[] { 0, -1 };
+            } catch (final IOException e) {
+                logger.debug("Failed to read attributes of {}.", path, e);
+                return null;
+            }
+        }
+
+        private boolean updateAttributes() {
+            final long[] attrs = readAttributes();
+            if (attrs == null || attrs[0] == lastModified && attrs[1] == size) {
+                return false;
+            }
+            lastModified = attrs[0];
+            size = attrs[1];
+            return true;
+        }
+
+        void poll(final long interval) {
+            if (pollFuture != null) {
+                pollFuture.cancel(false);
+            }
+            pollInterval = Math.max(interval, MIN_POLL_INTERVAL);
+            pollFuture = scheduler.scheduleWithFixedDelay(this::pollChange, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Starts the debounce when the file differs from the last poll, as a watch event does.
+         */
+        private void pollChange() {
+            synchronized (DictionaryWatcher.this) {
+                if (files.get(path) != this || !pruneReleased()) {
+                    return;
+                }
+                final long[] attrs = readAttributes();
+                if (attrs != null && (attrs[0] != polledModified || attrs[1] != polledSize)) {
+                    polledModified = attrs[0];
+                    polledSize = attrs[1];
+                    scheduleCheck();
+                }
+            }
+        }
+
+        /**
+         * Removes the listeners whose subscribers were released, and stops tracking the file if none is left.
+         *
+         * @return true if the file is still tracked
+         */
+        boolean pruneReleased() {
+            listeners.removeIf(Listener::isReleased);
+            if (listeners.isEmpty()) {
+                untrack(this);
+                return false;
+            }
+            return true;
+        }
+
+        void scheduleCheck() {
+            if (checkFuture != null) {
+                checkFuture.cancel(false);
+            }
+            checkFuture = scheduler.schedule(this::check, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+
+        void cancel() {
+            if (checkFuture != null) {
+                checkFuture.cancel(false);
+            }
+            if (pollFuture != null) {
+                pollFuture.cancel(false);
+            }
+        }
+
+        private void check() {
+            synchronized (DictionaryWatcher.this) {
+                if (files.get(path) != this || !updateAttributes()) {
+                    return;
+                }
+            }
+            for (final Listener<?> listener : listeners) {
+                if (!listener.notifyChange()) {
+                    unsubscribe(path, listener);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content hashes used to key the caches of dictionaries.
+ */
+public final class Digests {
+
+    private Digests() {
+        // nothing
+    }
+
+    /**
+     * Returns the hex SHA-256 hash of the UTF-8 bytes of the parts, in order.
+     */
+    public static String sha256Hex(final String... parts) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (final String part : parts) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
@@ -19,17 +19,25 @@ package org.codelibs.opensearch.extension.analysis;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.CharacterUtils;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.synonym.SynonymMap;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.BytesRefHash;
 import org.apache.lucene.util.CharsRef;
 import org.apache.lucene.util.UnicodeUtil;
 import org.apache.lucene.util.fst.FST;
@@ -45,7 +53,8 @@ public final class NGramSynonymTokenizer extends Tokenizer {
 
     private final int n;
 
-    private final String delimiters;
+    // one bit per delimiter char; input is scanned as UTF-16 units, so no lookup ever needs more than the BMP
+    private final long[] delimiterBits;
 
     private final boolean expand;
 
@@ -53,8 +62,6 @@ public final class NGramSynonymTokenizer extends Tokenizer {
 
     private final SynonymLoader synonymLoader;
 
-    private long lastModified;
-
     private SynonymMap synonymMap = null;
 
     private FST.Arc<BytesRef> scratchArc;
@@ -63,13 +70,35 @@ public final class NGramSynonymTokenizer extends Tokenizer {
 
     private FST.BytesReader fstReader;
 
+    // delta rules layered over synonymMap
+    private SynonymOverlay overlay;
+
+    private FST<BytesRef> overlayFst;
+
+    private FST.BytesReader overlayFstReader;
+
+    private CharArraySet mask;
+
+    private final BytesRefBuilder overlayOutput = new BytesRefBuilder();
+
+    // words of the map which the last match came from
+    private BytesRefHash matchWords;
+
+    private final MatchCache matchCache;
+
     private final BytesRef scratchBytes = new BytesRef();
 
     private final CharsRef scratchChars = new CharsRef();
 
+    private final BytesRefBuilder pendingOutput = new BytesRefBuilder();
+
+    private final BytesRefBuilder matchOutput = new BytesRefBuilder();
+
+    private final ByteArrayDataInput bytesReader = new ByteArrayDataInput();
+
     private int longestMatchEndOffset;
 
-    private int ch;
+    private boolean endOfInput;
 
     private final char[] readBuffer;
 
@@ -77,18 +106,26 @@ public final class NGramSynonymTokenizer extends Tokenizer {
 
     private int readBufferLen;
 
-    StringBuilder block;
-
     int blkStart;
 
     int nextBlkStart;
 
+    // chars of the current block, n-grams are emitted as slices over this buffer
+    private char[] blockChars;
+
+    private int blockLength;
+
     private int finalOffset;
 
-    private final PriorityQueue<MyToken> queue;
+    private final MyTokenQueue queue;
 
     private MyToken prevToken;
 
+    // recycled token records, all of them are released when the next block is read
+    private MyToken[] tokenPool;
+
+    private int tokenPoolUpto;
+
     private final List<MyToken> synonyms;
 
     private final CharTermAttribute termAttr = addAttribute(CharTermAttribute.class);
@@ -99,38 +136,42 @@ public final class NGramSynonymTokenizer extends Tokenizer {
 
     protected NGramSynonymTokenizer(final int n, final String delimiters, final boolean expand, final boolean ignoreCase,
             final SynonymLoader synonymLoader) {
+        this(n, delimiters, expand, ignoreCase, synonymLoader, 0, null);
+    }
+
+    /**
+     * @param matchCacheSize the number of blocks whose synonym matches are cached, or 0 to disable the cache
+     * @param matchCacheStats the counters to record cache hits and misses into, or null
+     */
+    protected NGramSynonymTokenizer(final int n, final String delimiters, final boolean expand, final boolean ignoreCase,
+            final SynonymLoader synonymLoader, final int matchCacheSize, final MatchCacheStats matchCacheStats) {
         this.n = n;
-        this.delimiters = delimiters;
+        this.matchCache = matchCacheSize > 0 ? new MatchCache(matchCacheSize, matchCacheStats) : null;
+        this.delimiterBits = toBits(delimiters);
         this.expand = expand;
         this.ignoreCase = ignoreCase;
         if (synonymLoader != null) {
             if (synonymLoader.isReloadable()) {
                 this.synonymLoader = synonymLoader;
-                this.lastModified = synonymLoader.getLastModified();
             } else {
                 this.synonymLoader = null;
-                this.lastModified = System.currentTimeMillis();
-            }
-            synonymMap = synonymLoader.getSynonymMap();
-            if (synonymMap != null && synonymMap.fst == null) {
-                this.synonymMap = null;
             }
+            final SynonymOverlay synonymOverlay = synonymLoader.getSynonymOverlay();
+            setSynonymMaps(synonymOverlay != null ? synonymOverlay.getBase() : synonymLoader.getSynonymMap(), synonymOverlay);
         } else {
             this.synonymLoader = null;
         }
-        if (synonymMap != null) {
-            this.fst = synonymMap.fst;
-            this.fstReader = fst.getBytesReader();
-            scratchArc = new FST.Arc<>();
-        }
 
-        ch = 0;
+        endOfInput = false;
         readBuffer = new char[BUFFER_SIZE];
         readBufferIndex = BUFFER_SIZE;
         readBufferLen = 0;
-        block = new StringBuilder();
+        blockChars = new char[BUFFER_SIZE];
+        blockLength = 0;
         nextBlkStart = 0;
-        queue = new PriorityQueue<>(100, new MyTokensComparator());
+        queue = new MyTokenQueue();
+        tokenPool = new MyToken[100];
+        tokenPoolUpto = 0;
         this.synonyms = new ArrayList<>();
     }
 
@@ -139,8 +180,7 @@ public final class NGramSynonymTokenizer extends Tokenizer {
         while (true) {
             final MyToken nextToken = getNextUniqueToken(queue, prevToken);
             if (nextToken == null) {
-                getNextBlock();
-                if (block.length() == 0) {
+                if (!getNextBlock()) {
                     return false;
                 }
                 consultDictionary();
@@ -148,7 +188,7 @@ public final class NGramSynonymTokenizer extends Tokenizer {
             } else {
                 prevToken = nextToken;
                 clearAttributes();
-                termAttr.append(nextToken.word);
+                termAttr.copyBuffer(nextToken.buffer, nextToken.offset, nextToken.length);
                 finalOffset = correctOffset(blkStart + nextToken.endOffset);
                 offsetAttr.setOffset(correctOffset(blkStart + nextToken.startOffset), finalOffset);
                 posIncAttr.setPositionIncrement(nextToken.posInc);
@@ -157,7 +197,7 @@ public final class NGramSynonymTokenizer extends Tokenizer {
         }
     }
 
-    static MyToken getNextUniqueToken(final PriorityQueue<MyToken> que, final MyToken prev) {
+    static MyToken getNextUniqueToken(final MyTokenQueue que, final MyToken prev) {
         while (true) {
             final MyToken token = que.poll();
             if (token == null) {
@@ -169,95 +209,190 @@ public final class NGramSynonymTokenizer extends Tokenizer {
         }
     }
 
+    String getBlock() {
+        return new String(blockChars, 0, blockLength);
+    }
+
+    MyToken nextPooledToken() {
+        if (tokenPoolUpto == tokenPool.length) {
+            tokenPool = ArrayUtil.grow(tokenPool, tokenPoolUpto + 1);
+        }
+        MyToken token = tokenPool[tokenPoolUpto];
+        if (token == null) {
+            token = new MyToken();
+            tokenPool[tokenPoolUpto] = token;
+        }
+        tokenPoolUpto++;
+        return token;
+    }
+
+    private void setSynonymMaps(final SynonymMap map, final SynonymOverlay synonymOverlay) {
+        synonymMap = map != null && map.fst != null ? map : null;
+        fst = synonymMap != null ? synonymMap.fst : null;
+        fstReader = fst != null ? fst.getBytesReader() : null;
+        overlay = synonymOverlay;
+        final SynonymMap overlayMap = synonymOverlay != null ? synonymOverlay.getMap() : null;
+        overlayFst = overlayMap != null ? overlayMap.fst : null;
+        overlayFstReader = overlayFst != null ? overlayFst.getBytesReader() : null;
+        mask = synonymOverlay != null ? synonymOverlay.getMask() : null;
+        if (matchCache != null) {
+            matchCache.clear();
+        }
+        if (scratchArc == null) {
+            scratchArc = new FST.Arc<>();
+        }
+    }
+
     void consultDictionary() throws IOException {
-        if (synonymMap == null) {
+        if (synonymMap == null && overlay == null) {
             return;
         }
         synonyms.clear();
-        final char[] key = block.toString().toCharArray();
-        for (int start = 0; start < block.length();) {
-            final BytesRef matchOutput = getLongestMatchOutput(key, start);
-            if (matchOutput == null) {
+        if (matchCache != null && blockLength <= MatchCache.MAX_BLOCK_LENGTH) {
+            // repeated blocks, such as product codes or boilerplate, skip the FST traversal
+            final MatchCache.Matches cached = matchCache.get(blockChars, blockLength);
+            if (cached != null) {
+                for (int i = 0; i < cached.count; i++) {
+                    final MyToken synonym = nextPooledToken().copyOf(blockChars, cached.starts[i], cached.ends[i], 1, ignoreCase);
+                    synonym.setOutput(cached.outputs[i], cached.words[i]);
+                    synonyms.add(synonym);
+                }
+                return;
+            }
+            findSynonyms();
+            matchCache.put(blockChars, blockLength, synonyms);
+            return;
+        }
+        findSynonyms();
+    }
+
+    private void findSynonyms() throws IOException {
+        for (int start = 0; start < blockLength;) {
+            final BytesRef output = getLongestMatchOutput(blockChars, start, blockLength);
+            if (output == null) {
                 start++;
                 continue;
             }
 
-            synonyms.add(new MyToken(key, start, longestMatchEndOffset, 1, matchOutput.clone(), ignoreCase)); // TODO synonym
+            final MyToken synonym = nextPooledToken().copyOf(blockChars, start, longestMatchEndOffset, 1, ignoreCase); // TODO synonym
+            synonym.setOutput(output, matchWords);
+            synonyms.add(synonym);
             start = longestMatchEndOffset;
         }
     }
 
-    BytesRef getLongestMatchOutput(final char[] src, final int start) throws IOException {
-        BytesRef pendingOutput = fst.outputs.getNoOutput();
+    BytesRef getLongestMatchOutput(final char[] src, final int start, final int limit) throws IOException {
+        if (overlay == null) {
+            if (findLongestMatch(fst, fstReader, null, src, start, limit)) {
+                matchWords = synonymMap.words;
+                return matchOutput.get();
+            }
+            return null;
+        }
+
+        // the overlay masks its inputs in the base map, so matches of the same length never come from both
+        int overlayEndOffset = -1;
+        if (overlayFst != null && findLongestMatch(overlayFst, overlayFstReader, null, src, start, limit)) {
+            overlayEndOffset = longestMatchEndOffset;
+            overlayOutput.copyBytes(matchOutput);
+        }
+        if (fst != null && findLongestMatch(fst, fstReader, mask, src, start, limit) && longestMatchEndOffset > overlayEndOffset) {
+            matchWords = synonymMap.words;
+            return matchOutput.get();
+        }
+        if (overlayEndOffset != -1) {
+            longestMatchEndOffset = overlayEndOffset;
+            matchWords = overlay.getMap().words;
+            return overlayOutput.get();
+        }
+        return null;
+    }
+
+    private boolean findLongestMatch(final FST<BytesRef> fst, final FST.BytesReader fstReader, final CharArraySet mask, final char[] src,
+            final int start, final int limit) throws IOException {
+        if (fst == null) {
+            return false;
+        }
+        pendingOutput.clear();
         fst.getFirstArc(scratchArc);
-        BytesRef matchOutput = null;
+        boolean matched = false;
 
         int index = 0;
-        while (start + index < src.length) {
-            final int codePoint = Character.codePointAt(src, start + index, src.length);
+        while (start + index < limit) {
+            final int codePoint = Character.codePointAt(src, start + index, limit);
             if (fst.findTargetArc(ignoreCase ? Character.toLowerCase(codePoint) : codePoint, scratchArc, scratchArc, fstReader) == null) {
-                return matchOutput;
+                break;
             }
 
-            pendingOutput = fst.outputs.add(pendingOutput, scratchArc.output());
+            pendingOutput.append(scratchArc.output());
 
-            if (scratchArc.isFinal()) {
-                matchOutput = fst.outputs.add(pendingOutput, scratchArc.nextFinalOutput());
+            if (scratchArc.isFinal() && (mask == null || !mask.contains(src, start, index + Character.charCount(codePoint)))) {
+                matchOutput.copyBytes(pendingOutput);
+                matchOutput.append(scratchArc.nextFinalOutput());
                 longestMatchEndOffset = start + index + Character.charCount(codePoint);
+                matched = true;
             }
 
             index += Character.charCount(codePoint);
         }
 
-        return matchOutput;
+        return matched;
     }
 
     void tokenizeWholeBlock() {
         queue.clear();
+        // tokens are enqueued as runs already sorted by MyTokensComparator, and every group of runs
+        // precedes the next one, so the queue only has to merge the few runs of the current group
+        queue.startGroup();
         int nextStart = 0;
-        final int end = block.length();
+        final int end = blockLength;
         boolean afterSynonymProduced = false;
-        final ByteArrayDataInput bytesReader = new ByteArrayDataInput();
         for (int idx = 0; idx < synonyms.size(); idx++) {
             final MyToken synonym = synonyms.get(idx);
+            queue.startRun();
             tokenizePartialBlock(nextStart, synonym.startOffset, afterSynonymProduced);
 
             // enqueue prev-synonym
+            queue.startRun();
             processPrevSynonym(synonym.startOffset, idx > 0 ? synonyms.get(idx - 1).endOffset : 0);
 
+            queue.startRun();
             if (expand) {
                 queue.add(synonym);
             }
 
             // enqueue synonyms
-            bytesReader.reset(synonym.output.bytes, synonym.output.offset, synonym.output.length);
+            bytesReader.reset(synonym.output.bytes(), 0, synonym.output.length());
             final int code = bytesReader.readVInt();
             final int count = code >>> 1;
             for (int i = 0; i < count; i++) {
-                synonymMap.words.get(bytesReader.readVInt(), scratchBytes);
+                synonym.words.get(bytesReader.readVInt(), scratchBytes);
                 if (scratchChars.chars.length < scratchBytes.length) {
                     scratchChars.chars = new char[scratchBytes.length];
                 }
                 scratchChars.length = UnicodeUtil.UTF8toUTF16(scratchBytes, scratchChars.chars);
-                final String word = scratchChars.toString();
                 int posInc = 0;
                 if (!expand) {
                     posInc = 1;
-                } else if (synonym.word.equals(word)) {
+                } else if (synonym.termEquals(scratchChars.chars, 0, scratchChars.length)) {
                     continue;
                 }
-                queue.add(new MyToken(word, synonym.startOffset, synonym.endOffset, posInc, i + 1));
+                queue.add(nextPooledToken().copyOf(scratchChars.chars, 0, scratchChars.length, synonym.startOffset, synonym.endOffset,
+                        posInc, i + 1));
                 if (!expand) {
                     break;
                 }
             }
 
             // enqueue after-synonym
+            queue.startGroup();
+            queue.startRun();
             afterSynonymProduced =
-                    processAfterSynonym(synonym.endOffset, idx < synonyms.size() - 1 ? synonyms.get(idx + 1).startOffset : block.length());
+                    processAfterSynonym(synonym.endOffset, idx < synonyms.size() - 1 ? synonyms.get(idx + 1).startOffset : blockLength);
 
             nextStart = synonym.endOffset;
         }
+        queue.startRun();
         tokenizePartialBlock(nextStart, end, afterSynonymProduced);
     }
 
@@ -268,21 +403,20 @@ public final class NGramSynonymTokenizer extends Tokenizer {
 
         int posInc = afterSynonymProduced ? 0 : 1;
         if (endOffset - startOffset < n) {
-            queue.add(new MyToken(block.substring(startOffset, endOffset), startOffset, endOffset, posInc));
+            queue.add(nextPooledToken().sliceOf(blockChars, startOffset, endOffset, posInc));
             return;
         }
 
         for (int i = startOffset; i + n <= endOffset; i++) {
-            queue.add(new MyToken(block.substring(i, i + n), i, i + n, posInc));
+            queue.add(nextPooledToken().sliceOf(blockChars, i, i + n, posInc));
             posInc = 1;
         }
     }
 
     void processPrevSynonym(final int endOffset, final int limitOffset) {
-        int startOffset = endOffset - 1;
-        for (int len = 1; len < n && startOffset >= limitOffset; len++) {
-            queue.add(new MyToken(block.substring(startOffset, endOffset), startOffset, endOffset, 0));
-            startOffset--;
+        // the longest one first, so that the run is in ascending order of start offsets
+        for (int startOffset = Math.max(limitOffset, endOffset - n + 1); startOffset < endOffset; startOffset++) {
+            queue.add(nextPooledToken().sliceOf(blockChars, startOffset, endOffset, 0));
         }
     }
 
@@ -291,7 +425,7 @@ public final class NGramSynonymTokenizer extends Tokenizer {
         int endOffset = startOffset + 1;
         int posInc = 1;
         for (int len = 1; len < n && endOffset <= limitOffset; len++) {
-            queue.add(new MyToken(block.substring(startOffset, endOffset), startOffset, endOffset, posInc));
+            queue.add(nextPooledToken().sliceOf(blockChars, startOffset, endOffset, posInc));
             endOffset++;
             posInc = 0;
         }
@@ -307,24 +441,22 @@ public final class NGramSynonymTokenizer extends Tokenizer {
     @Override
     public void reset() throws IOException {
         super.reset();
-        block.setLength(0);
+        blockLength = 0;
+        queue.clear();
+        synonyms.clear();
+        tokenPoolUpto = 0;
         prevToken = null;
         readBufferIndex = BUFFER_SIZE;
         readBufferLen = 0;
-        ch = 0;
+        endOfInput = false;
         blkStart = 0;
         nextBlkStart = 0;
-        if (synonymLoader != null && synonymLoader.isUpdate(lastModified)) {
-            lastModified = synonymLoader.getLastModified();
-            final SynonymMap map = synonymLoader.getSynonymMap();
-            if (map != null) {
-                synonymMap = map;
-                fst = synonymMap.fst;
-                if (fst == null) {
-                    throw new IllegalArgumentException("fst must be non-null");
-                }
-                fstReader = fst.getBytesReader();
-                scratchArc = new FST.Arc<>();
+        if (synonymLoader != null) {
+            // the loader publishes reloaded maps in the background, so this is just a volatile read
+            final SynonymOverlay synonymOverlay = synonymLoader.getSynonymOverlay();
+            final SynonymMap map = synonymOverlay != null ? synonymOverlay.getBase() : synonymLoader.getSynonymMap();
+            if (synonymOverlay != overlay || map != null && map != synonymMap) {
+                setSynonymMaps(map, synonymOverlay);
                 clearAttributes();
             }
         }
@@ -332,61 +464,90 @@ public final class NGramSynonymTokenizer extends Tokenizer {
 
     boolean getNextBlock() throws IOException {
         blkStart = nextBlkStart;
-        block.setLength(0);
+        blockLength = 0;
         prevToken = null;
-        while (true) {
-            if (ch != -1) {
-                ch = readCharFromBuffer();
+        tokenPoolUpto = 0;
+        // copies whole runs of non-delimiters from the read buffer instead of one char at a time
+        while (!endOfInput) {
+            if (readBufferIndex >= readBufferLen) {
+                readBufferLen = input.read(readBuffer);
+                if (readBufferLen == -1) {
+                    endOfInput = true;
+                    break;
+                }
+                readBufferIndex = 0;
             }
-            if (ch == -1) {
-                break;
-            } else if (!isDelimiter(ch)) {
-                block.append((char) ch);
-            } else if (block.length() > 0) {
+            int i = readBufferIndex;
+            if (blockLength == 0) {
+                while (i < readBufferLen && isDelimiter(readBuffer[i])) {
+                    i++;
+                }
+                blkStart += i - readBufferIndex;
+            }
+            final int runStart = i;
+            while (i < readBufferLen && !isDelimiter(readBuffer[i])) {
+                i++;
+            }
+            appendToBlock(runStart, i - runStart);
+            // the delimiter which ends the block is consumed with it
+            final boolean endOfBlock = i < readBufferLen && blockLength > 0;
+            if (endOfBlock) {
+                i++;
+            }
+            nextBlkStart += i - readBufferIndex;
+            readBufferIndex = i;
+            if (endOfBlock) {
                 break;
-            } else {
-                blkStart++;
             }
         }
-        if (block.length() == 0) {
-            return false;
+        return blockLength > 0;
+    }
+
+    private void appendToBlock(final int offset, final int length) {
+        if (length == 0) {
+            return;
+        }
+        if (blockChars.length < blockLength + length) {
+            blockChars = ArrayUtil.grow(blockChars, blockLength + length);
         }
-        return true;
+        System.arraycopy(readBuffer, offset, blockChars, blockLength, length);
+        blockLength += length;
     }
 
-    int readCharFromBuffer() throws IOException {
-        if (readBufferIndex >= readBufferLen) {
-            readBufferLen = input.read(readBuffer);
-            if (readBufferLen == -1) {
-                return -1;
-            }
-            readBufferIndex = 0;
+    static long[] toBits(final String chars) {
+        int max = -1;
+        for (int i = 0; i < chars.length(); i++) {
+            max = Math.max(max, chars.charAt(i));
+        }
+        final long[] bits = new long[(max >> 6) + 1];
+        for (int i = 0; i < chars.length(); i++) {
+            final char c = chars.charAt(i);
+            bits[c >> 6] |= 1L << c;
         }
-        final int c = readBuffer[readBufferIndex++];
-        nextBlkStart++;
-        return c;
+        return bits;
     }
 
     boolean isDelimiter(final int c) {
-        return delimiters.indexOf(c) >= 0;
+        final int word = c >>> 6;
+        return word < delimiterBits.length && (delimiterBits[word] & 1L << c) != 0;
     }
 
     static class MyToken {
-        final String word;
+        // term chars are either a slice of the block chars or a copy held in termBuffer
+        char[] buffer;
 
-        final int startOffset, endOffset, posInc, seq;
+        int offset, length;
 
-        final BytesRef output;
+        int startOffset, endOffset, posInc, seq;
 
-        public MyToken(final char[] key, final int startOffset, final int endOffset, final int posInc, final BytesRef output,
-                final boolean ignoreCase) {
-            this.word = ignoreCase ? new String(key, startOffset, endOffset - startOffset).toLowerCase()
-                    : new String(key, startOffset, endOffset - startOffset);
-            this.startOffset = startOffset;
-            this.endOffset = endOffset;
-            this.posInc = posInc;
-            this.output = output;
-            this.seq = 0; // zero for seq means that this token is the original of synonyms
+        private char[] termBuffer;
+
+        BytesRefBuilder output;
+
+        BytesRefHash words;
+
+        MyToken() {
+            this.buffer = CharsRef.EMPTY_CHARS;
         }
 
         public MyToken(final String word, final int startOffset, final int endOffset, final int posInc) {
@@ -394,19 +555,66 @@ public final class NGramSynonymTokenizer extends Tokenizer {
         }
 
         public MyToken(final String word, final int startOffset, final int endOffset, final int posInc, final int seq) {
-            this.word = word;
+            final char[] chars = word.toCharArray();
+            copyOf(chars, 0, chars.length, startOffset, endOffset, posInc, seq);
+        }
+
+        MyToken sliceOf(final char[] block, final int startOffset, final int endOffset, final int posInc) {
+            this.buffer = block;
+            this.offset = startOffset;
+            this.length = endOffset - startOffset;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.posInc = posInc;
+            this.seq = Integer.MAX_VALUE; // Integer.MAX_VALUE for seq means unused
+            return this;
+        }
+
+        MyToken copyOf(final char[] src, final int startOffset, final int endOffset, final int posInc, final boolean ignoreCase) {
+            // zero for seq means that this token is the original of synonyms
+            copyOf(src, startOffset, endOffset - startOffset, startOffset, endOffset, posInc, 0);
+            if (ignoreCase) {
+                CharacterUtils.toLowerCase(buffer, 0, length);
+            }
+            return this;
+        }
+
+        MyToken copyOf(final char[] src, final int srcOffset, final int srcLength, final int startOffset, final int endOffset,
+                final int posInc, final int seq) {
+            if (termBuffer == null || termBuffer.length < srcLength) {
+                termBuffer = new char[ArrayUtil.oversize(srcLength, Character.BYTES)];
+            }
+            System.arraycopy(src, srcOffset, termBuffer, 0, srcLength);
+            this.buffer = termBuffer;
+            this.offset = 0;
+            this.length = srcLength;
             this.startOffset = startOffset;
             this.endOffset = endOffset;
             this.posInc = posInc;
-            this.output = null; // means unused
             this.seq = seq;
+            if (output != null) {
+                output.clear();
+            }
+            return this;
+        }
+
+        void setOutput(final BytesRef bytes, final BytesRefHash words) {
+            if (output == null) {
+                output = new BytesRefBuilder();
+            }
+            output.copyBytes(bytes);
+            this.words = words;
+        }
+
+        boolean termEquals(final char[] chars, final int off, final int len) {
+            return Arrays.equals(buffer, offset, offset + length, chars, off, off + len);
         }
 
         public boolean identical(final MyToken o) {
             if (o.posInc != 0) {
                 return false;
             }
-            if (!word.equals(o.word)) {
+            if (!termEquals(o.buffer, o.offset, o.length)) {
                 return false;
             }
             if (startOffset != o.startOffset) {
@@ -421,7 +629,7 @@ public final class NGramSynonymTokenizer extends Tokenizer {
         @Override
         public String toString() {
             final StringBuilder sb = new StringBuilder();
-            sb.append(word).append(',').append(startOffset).append(',').append(endOffset).append(',').append(posInc);
+            sb.append(buffer, offset, length).append(',').append(startOffset).append(',').append(endOffset).append(',').append(posInc);
             return sb.toString();
         }
 
@@ -431,7 +639,7 @@ public final class NGramSynonymTokenizer extends Tokenizer {
                 return false;
             }
             final MyToken o = (MyToken) other;
-            if (!word.equals(o.word)) {
+            if (!termEquals(o.buffer, o.offset, o.length)) {
                 return false;
             }
             if (startOffset != o.startOffset) {
@@ -448,7 +656,11 @@ public final class NGramSynonymTokenizer extends Tokenizer {
 
         @Override
         public int hashCode() {
-            return word.hashCode() + posInc << 30 + startOffset << 15 + endOffset;
+            int h = 0;
+            for (int i = offset; i < offset + length; i++) {
+                h = 31 * h + buffer[i];
+            }
+            return h + posInc << 30 + startOffset << 15 + endOffset;
         }
     }
 
@@ -472,6 +684,201 @@ public final class NGramSynonymTokenizer extends Tokenizer {
       }
       */
 
+    /**
+     * Hit and miss counters shared by the tokenizers of a factory.
+     */
+    static final class MatchCacheStats {
+        final LongAdder hits = new LongAdder();
+
+        final LongAdder misses = new LongAdder();
+
+        long getHits() {
+            return hits.sum();
+        }
+
+        long getMisses() {
+            return misses.sum();
+        }
+
+        double getHitRate() {
+            final long h = hits.sum();
+            final long total = h + misses.sum();
+            return total == 0 ? 0 : (double) h / total;
+        }
+    }
+
+    /**
+     * LRU cache of the synonym matches of blocks. The key is the block chars, so a hash collision never returns wrong matches.
+     */
+    static final class MatchCache {
+        // longer blocks rarely repeat and would hold too much memory
+        static final int MAX_BLOCK_LENGTH = 256;
+
+        private final Map<CharsRef, Matches> entries;
+
+        private final MatchCacheStats stats;
+
+        private final CharsRef lookupKey = new CharsRef();
+
+        MatchCache(final int maxSize, final MatchCacheStats stats) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<CharsRef, Matches> eldest) {
+                    return size() > maxSize;
+                }
+            };
+            this.stats = stats != null ? stats : new MatchCacheStats();
+        }
+
+        Matches get(final char[] chars, final int length) {
+            lookupKey.chars = chars;
+            lookupKey.offset = 0;
+            lookupKey.length = length;
+            final Matches matches = entries.get(lookupKey);
+            lookupKey.chars = CharsRef.EMPTY_CHARS;
+            if (matches != null) {
+                stats.hits.increment();
+            } else {
+                stats.misses.increment();
+            }
+            return matches;
+        }
+
+        void put(final char[] chars, final int length, final List<MyToken> synonyms) {
+            final Matches matches = new Matches(synonyms.size());
+            for (final MyToken synonym : synonyms) {
+                matches.add(synonym);
+            }
+            entries.put(new CharsRef(ArrayUtil.copyOfSubArray(chars, 0, length), 0, length), matches);
+        }
+
+        void clear() {
+            entries.clear();
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        MatchCacheStats getStats() {
+            return stats;
+        }
+
+        static final class Matches {
+            int count;
+
+            final int[] starts;
+
+            final int[] ends;
+
+            final BytesRef[] outputs;
+
+            final BytesRefHash[] words;
+
+            Matches(final int size) {
+                starts = new int[size];
+                ends = new int[size];
+                outputs = new BytesRef[size];
+                words = new BytesRefHash[size];
+            }
+
+            void add(final MyToken synonym) {
+                starts[count] = synonym.startOffset;
+                ends[count] = synonym.endOffset;
+                outputs[count] = synonym.output.toBytesRef();
+                words[count] = synonym.words;
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Token queue which merges runs of tokens pre-sorted by {@link MyTokensComparator}.
+     * Runs are grouped, and all tokens of a group sort before the tokens of the next group,
+     * so {@link #poll()} only compares the heads of the runs in the current group.
+     */
+    static final class MyTokenQueue {
+        private static final MyTokensComparator COMPARATOR = new MyTokensComparator();
+
+        private MyToken[] tokens = new MyToken[100];
+
+        private int size;
+
+        private int[] runStarts = new int[16];
+
+        private int[] runHeads = new int[16];
+
+        private int runCount;
+
+        private int[] groupStarts = new int[16];
+
+        private int groupCount;
+
+        private int group;
+
+        void add(final MyToken token) {
+            if (runCount == 0) {
+                startRun();
+            }
+            if (size == tokens.length) {
+                tokens = ArrayUtil.grow(tokens, size + 1);
+            }
+            tokens[size++] = token;
+        }
+
+        void startRun() {
+            if (groupCount == 0) {
+                startGroup();
+            }
+            if (runCount == runStarts.length) {
+                runStarts = ArrayUtil.grow(runStarts, runCount + 1);
+                runHeads = ArrayUtil.grow(runHeads, runCount + 1);
+            }
+            runStarts[runCount] = size;
+            runHeads[runCount] = size;
+            runCount++;
+        }
+
+        void startGroup() {
+            if (groupCount == groupStarts.length) {
+                groupStarts = ArrayUtil.grow(groupStarts, groupCount + 1);
+            }
+            groupStarts[groupCount++] = runCount;
+        }
+
+        MyToken poll() {
+            while (group < groupCount) {
+                final int lastRun = group + 1 < groupCount ? groupStarts[group + 1] : runCount;
+                int best = -1;
+                for (int run = groupStarts[group]; run < lastRun; run++) {
+                    final int runEnd = run + 1 < runCount ? runStarts[run + 1] : size;
+                    if (runHeads[run] < runEnd && (best == -1 || COMPARATOR.compare(tokens[runHeads[run]], tokens[runHeads[best]]) < 0)) {
+                        best = run;
+                    }
+                }
+                if (best != -1) {
+                    return tokens[runHeads[best]++];
+                }
+                group++;
+            }
+            return null;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(tokens, 0, size, null);
+            size = 0;
+            runCount = 0;
+            groupCount = 0;
+            group = 0;
+        }
+    }
+
     static class MyTokensComparator implements Comparator<MyToken> {
         @Override
         public int compare(final MyToken t1, final MyToken t2) {
@@ -21,6 +21,10 @@ public final class NGramSynonymTokenizerFactory extends AbstractTokenizerFactory
 
     private SynonymLoader synonymLoader = null;
 
+    private final int synonymCacheSize;
+
+    private final NGramSynonymTokenizer.MatchCacheStats synonymCacheStats = new NGramSynonymTokenizer.MatchCacheStats();
+
     public NGramSynonymTokenizerFactory(final IndexSettings indexSettings, final Environment env, final String name,
             final Settings settings) {
         super(indexSettings, settings, name);
@@ -28,10 +32,14 @@ public final class NGramSynonymTokenizerFactory extends AbstractTokenizerFactory
         n = settings.getAsInt("n", NGramSynonymTokenizer.DEFAULT_N_SIZE);
         delimiters = settings.get("delimiters", NGramSynonymTokenizer.DEFAULT_DELIMITERS);
         expand = settings.getAsBoolean("expand", true);
+        synonymCacheSize = settings.getAsInt("synonym_cache_size", 0);
+        if (synonymCacheSize < 0) {
+            throw new IllegalArgumentException("synonym_cache_size must be non-negative: " + synonymCacheSize);
+        }
 
         settings.getAsBoolean("expand_ngram", false); // TODO remove
 
-        synonymLoader = new SynonymLoader(env, settings, expand, SynonymLoader.getAnalyzer(ignoreCase));
+        synonymLoader = new SynonymLoader(env, settings, expand, ignoreCase);
         if (synonymLoader.getSynonymMap() == null) {
             if (settings.getAsList("synonyms", null) != null) {
                 logger.warn("synonyms values are empty.");
@@ -45,6 +53,21 @@ public final class NGramSynonymTokenizerFactory extends AbstractTokenizerFactory
 
     @Override
     public Tokenizer create() {
-        return new NGramSynonymTokenizer(n, delimiters, expand, ignoreCase, synonymLoader);
+        return new NGramSynonymTokenizer(n, delimiters, expand, ignoreCase, synonymLoader, synonymCacheSize, synonymCacheStats);
+    }
+
+    public long getSynonymCacheHits() {
+        return synonymCacheStats.getHits();
+    }
+
+    public long getSynonymCacheMisses() {
+        return synonymCacheStats.getMisses();
+    }
+
+    /**
+     * Returns the ratio of blocks whose synonym matches came from the cache of the tokenizers created by this factory.
+     */
+    public double getSynonymCacheHitRate() {
+        return synonymCacheStats.getHitRate();
     }
 }
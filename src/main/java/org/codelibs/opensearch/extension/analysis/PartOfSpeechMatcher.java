@@ -0,0 +1,60 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Part-of-speech tags of a filter setting.
+ * If subtypes are matched, a tag such as "名詞" also matches "名詞-固有名詞-人名-姓".
+ */
+public final class PartOfSpeechMatcher {
+
+    private final Set<String> tags;
+
+    private final boolean matchSubtypes;
+
+    public PartOfSpeechMatcher(final Collection<String> tags, final boolean matchSubtypes) {
+        this.tags = Collections.unmodifiableSet(new HashSet<>(tags));
+        this.matchSubtypes = matchSubtypes;
+    }
+
+    /**
+     * Returns the tags as given, which match exactly.
+     */
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public boolean isMatchSubtypes() {
+        return matchSubtypes;
+    }
+
+    public boolean matches(final String tag) {
+        return match(tag) != null;
+    }
+
+    /**
+     * Returns the tag of this matcher which the given tag equals or, if subtypes are matched, is a subtype of.
+     *
+     * @return the matching tag, or null
+     */
+    public String match(final String tag) {
+        if (tag == null) {
+            return null;
+        }
+        if (tags.contains(tag)) {
+            return tag;
+        }
+        if (matchSubtypes) {
+            for (int i = tag.indexOf('-'); i != -1; i = tag.indexOf('-', i + 1)) {
+                final String prefix = tag.substring(0, i);
+                if (tags.contains(prefix)) {
+                    return prefix;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.util.CharsRefBuilder;
+
+/**
+ * Concatenates a token which matches the first {@link TermMatcher} with the following token if it matches the second one.
+ * A following token which does not match the second one is emitted as it is, like the filter of the codelibs analyzers library.
+ * Terms are matched on the term buffer, so no string is created for tokens which do not match.
+ */
+public final class PatternConcatenationFilter extends TokenFilter {
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+
+    private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+
+    private final TermMatcher matcher1;
+
+    private final TermMatcher matcher2;
+
+    private final CharsRefBuilder scratch = new CharsRefBuilder();
+
+    private State pending;
+
+    private boolean exhausted;
+
+    public PatternConcatenationFilter(final TokenStream input, final TermMatcher matcher1, final TermMatcher matcher2) {
+        super(input);
+        this.matcher1 = matcher1;
+        this.matcher2 = matcher2;
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        if (pending != null) {
+            // emitted as it is, even if it matches the first pattern
+            restoreState(pending);
+            pending = null;
+            return true;
+        }
+        if (exhausted || !input.incrementToken()) {
+            exhausted = true;
+            return false;
+        }
+        if (matcher1 == null || !matcher1.matches(termAtt.buffer(), termAtt.length())) {
+            return true;
+        }
+        final State first = captureState();
+        final int startOffset = offsetAtt.startOffset();
+        if (!input.incrementToken()) {
+            exhausted = true;
+            restoreState(first);
+            return true;
+        }
+        if (!matcher2.matches(termAtt.buffer(), termAtt.length())) {
+            pending = captureState();
+            restoreState(first);
+            return true;
+        }
+        scratch.copyChars(termAtt.buffer(), 0, termAtt.length());
+        final int endOffset = offsetAtt.endOffset();
+        restoreState(first);
+        termAtt.append(scratch.get());
+        offsetAtt.setOffset(startOffset, endOffset);
+        return true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        pending = null;
+        exhausted = false;
+    }
+}
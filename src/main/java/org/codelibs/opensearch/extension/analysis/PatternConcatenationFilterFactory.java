@@ -1,9 +1,6 @@
 package org.codelibs.opensearch.extension.analysis;
 
-import java.util.regex.Pattern;
-
 import org.apache.lucene.analysis.TokenStream;
-import org.codelibs.analysis.ja.PatternConcatenationFilter;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.env.Environment;
 import org.opensearch.index.IndexSettings;
@@ -11,9 +8,9 @@ import org.opensearch.index.analysis.AbstractTokenFilterFactory;
 
 public class PatternConcatenationFilterFactory extends AbstractTokenFilterFactory {
 
-    private Pattern pattern1;
+    private TermMatcher matcher1;
 
-    private Pattern pattern2;
+    private TermMatcher matcher2;
 
     public PatternConcatenationFilterFactory(final IndexSettings indexSettings, final Environment environment, final String name,
             final Settings settings) {
@@ -26,13 +23,13 @@ public class PatternConcatenationFilterFactory extends AbstractTokenFilterFactor
             logger.debug("pattern1: {}, pattern2: {}", pattern1Str, pattern2Str);
         }
         if (pattern1Str != null) {
-            pattern1 = Pattern.compile(pattern1Str);
-            pattern2 = Pattern.compile(pattern2Str);
+            matcher1 = TermMatcher.compile(pattern1Str);
+            matcher2 = TermMatcher.compile(pattern2Str);
         }
     }
 
     @Override
     public TokenStream create(final TokenStream tokenStream) {
-        return new PatternConcatenationFilter(tokenStream, pattern1, pattern2);
+        return new PatternConcatenationFilter(tokenStream, matcher1, matcher2);
     }
 }
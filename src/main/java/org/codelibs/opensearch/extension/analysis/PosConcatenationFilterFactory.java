@@ -1,8 +1,6 @@
 package org.codelibs.opensearch.extension.analysis;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.ja.tokenattributes.PartOfSpeechAttribute;
@@ -15,21 +13,27 @@ import org.opensearch.index.analysis.Analysis;
 
 public class PosConcatenationFilterFactory extends AbstractTokenFilterFactory {
 
-    private final Set<String> posTags = new HashSet<>();
+    private final PartOfSpeechMatcher posTags;
 
     public PosConcatenationFilterFactory(final IndexSettings indexSettings, final Environment environment, final String name,
             final Settings settings) {
         super(indexSettings, name, settings);
 
         final List<String> tagList = Analysis.parseWordList(environment, settings, "tags", s -> s);
-        if (tagList != null) {
-            posTags.addAll(tagList);
-        }
+        posTags = new PartOfSpeechMatcher(tagList != null ? tagList : List.of(), settings.getAsBoolean("match_subtypes", false));
     }
 
     @Override
     public TokenStream create(final TokenStream tokenStream) {
         final PartOfSpeechAttribute posAtt = tokenStream.addAttribute(PartOfSpeechAttribute.class);
-        return new PosConcatenationFilter(tokenStream, posTags, () -> posAtt.getPartOfSpeech());
+        if (!posTags.isMatchSubtypes()) {
+            return new PosConcatenationFilter(tokenStream, posTags.getTags(), () -> posAtt.getPartOfSpeech());
+        }
+        // the filter sees the configured tag which a subtype matches
+        return new PosConcatenationFilter(tokenStream, posTags.getTags(), () -> {
+            final String pos = posAtt.getPartOfSpeech();
+            final String tag = posTags.match(pos);
+            return tag != null ? tag : pos;
+        });
     }
 }
@@ -0,0 +1,129 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.lang.ref.Cleaner;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Node-level cache of values which are expensive to build, such as dictionaries, shared by all indices which use the same key.
+ * Entries are reference counted by {@link Lease}s and evicted when the last lease is released.
+ */
+public class RefCountedCache<K, V> {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Map<K, Entry<V>> entries = new HashMap<>();
+
+    /**
+     * Returns the cached value for the key, loading it if needed, and moves the lease to the key.
+     */
+    public <E extends Exception> V acquire(final Lease<K> lease, final K key, final Loader<V, E> loader) throws E {
+        final Entry<V> entry;
+        synchronized (this) {
+            entry = entries.computeIfAbsent(key, k -> new Entry<>());
+            entry.refCount++;
+        }
+        final V value;
+        try {
+            value = entry.get(loader);
+        } catch (final Exception e) {
+            release(key);
+            throw e;
+        }
+        final K previous = lease.key;
+        lease.key = key;
+        if (previous != null) {
+            release(previous);
+        }
+        return value;
+    }
+
+    synchronized void release(final K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry != null && --entry.refCount <= 0) {
+            entries.remove(key);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized int getRefCount(final K key) {
+        final Entry<V> entry = entries.get(key);
+        return entry == null ? 0 : entry.refCount;
+    }
+
+    /**
+     * Creates a lease which is released when the owner becomes unreachable or {@link Lease#close()} is called.
+     */
+    public Lease<K> newLease(final Object owner) {
+        final Lease<K> lease = new Lease<>(this);
+        lease.cleanable = CLEANER.register(owner, lease::release);
+        return lease;
+    }
+
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+
+    public static final class Lease<K> implements AutoCloseable {
+        private final RefCountedCache<K, ?> cache;
+
+        private volatile K key;
+
+        private Cleaner.Cleanable cleanable;
+
+        Lease(final RefCountedCache<K, ?> cache) {
+            this.cache = cache;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * Releases the current entry, and keeps the lease usable for another key.
+         */
+        public void release() {
+            final K current = key;
+            key = null;
+            if (current != null) {
+                cache.release(current);
+            }
+        }
+
+        /**
+         * Moves the entry to a new lease for another owner, e.g. the object built with the value, and closes this lease.
+         */
+        public Lease<K> moveTo(final Object owner) {
+            final Lease<K> lease = cache.newLease(owner);
+            lease.key = key;
+            key = null;
+            close();
+            return lease;
+        }
+
+        @Override
+        public void close() {
+            cleanable.clean();
+        }
+    }
+
+    private static final class Entry<V> {
+        private int refCount;
+
+        private V value;
+
+        private boolean loaded;
+
+        synchronized <E extends Exception> V get(final Loader<V, E> loader) throws E {
+            if (!loaded) {
+                value = loader.load();
+                loaded = true;
+            }
+            return value;
+        }
+    }
+}
@@ -1,9 +1,6 @@
 package org.codelibs.opensearch.extension.analysis;
 
-import java.nio.file.Path;
-
 import org.apache.lucene.analysis.TokenStream;
-import org.codelibs.analysis.en.ReloadableKeywordMarkerFilter;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.env.Environment;
@@ -12,9 +9,7 @@ import org.opensearch.index.analysis.AbstractTokenFilterFactory;
 
 public class ReloadableKeywordMarkerFilterFactory extends AbstractTokenFilterFactory {
 
-    private final Path keywordPath;
-
-    private final long reloadInterval;
+    private final ReloadableWordSet keywords;
 
     public ReloadableKeywordMarkerFilterFactory(final IndexSettings indexSettings, final Environment environment, final String name,
             final Settings settings) {
@@ -22,20 +17,19 @@ public class ReloadableKeywordMarkerFilterFactory extends AbstractTokenFilterFac
 
         final String path = settings.get("keywords_path");
         if (path != null) {
-            keywordPath = environment.configDir().resolve(path);
+            final long reloadInterval = settings.getAsTime("reload_interval", TimeValue.timeValueMinutes(1)).getMillis();
+            keywords = ReloadableWordSet.of(environment.configDir().resolve(path), false, reloadInterval);
         } else {
-            keywordPath = null;
+            keywords = null;
         }
-
-        reloadInterval = settings.getAsTime("reload_interval", TimeValue.timeValueMinutes(1)).getMillis();
     }
 
     @Override
     public TokenStream create(final TokenStream tokenStream) {
-        if (keywordPath == null) {
+        if (keywords == null) {
             return tokenStream;
         }
-        return new ReloadableKeywordMarkerFilter(tokenStream, keywordPath, reloadInterval);
+        return new WordSetKeywordMarkerFilter(tokenStream, keywords);
     }
 
 }
\ No newline at end of file
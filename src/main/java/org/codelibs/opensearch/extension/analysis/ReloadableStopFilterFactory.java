@@ -1,9 +1,6 @@
 package org.codelibs.opensearch.extension.analysis;
 
-import java.nio.file.Path;
-
 import org.apache.lucene.analysis.TokenStream;
-import org.codelibs.analysis.en.ReloadableStopFilter;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.env.Environment;
@@ -12,11 +9,7 @@ import org.opensearch.index.analysis.AbstractTokenFilterFactory;
 
 public class ReloadableStopFilterFactory extends AbstractTokenFilterFactory {
 
-    private final Path stopwordPath;
-
-    private final long reloadInterval;
-
-    private final boolean ignoreCase;
+    private final ReloadableWordSet stopwords;
 
     public ReloadableStopFilterFactory(final IndexSettings indexSettings, final Environment environment, final String name,
             final Settings settings) {
@@ -24,21 +17,20 @@ public class ReloadableStopFilterFactory extends AbstractTokenFilterFactory {
 
         final String path = settings.get("stopwords_path");
         if (path != null) {
-            stopwordPath = environment.configDir().resolve(path);
+            final boolean ignoreCase = settings.getAsBoolean("ignore_case", false);
+            final long reloadInterval = settings.getAsTime("reload_interval", TimeValue.timeValueMinutes(1)).getMillis();
+            stopwords = ReloadableWordSet.of(environment.configDir().resolve(path), ignoreCase, reloadInterval);
         } else {
-            stopwordPath = null;
+            stopwords = null;
         }
-
-        ignoreCase = settings.getAsBoolean("ignore_case", false);
-        reloadInterval = settings.getAsTime("reload_interval", TimeValue.timeValueMinutes(1)).getMillis();
     }
 
     @Override
     public TokenStream create(final TokenStream tokenStream) {
-        if (stopwordPath == null) {
+        if (stopwords == null) {
             return tokenStream;
         }
-        return new ReloadableStopFilter(tokenStream, stopwordPath, ignoreCase, reloadInterval);
+        return new WordSetStopFilter(tokenStream, stopwords);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.WordlistLoader;
+
+/**
+ * Word list of a file, loaded into an immutable {@link CharArraySet} which is replaced in the background
+ * when the file is changed. All streams of a factory read the same snapshot, so a change of the file is read once.
+ * Factories of the node get the same instance for the same file and options through {@link #of(Path, boolean, long)}.
+ */
+public final class ReloadableWordSet {
+    private static final Logger logger = LogManager.getLogger(ReloadableWordSet.class);
+
+    // weakly referenced, so that a word set is released with the last factory which uses it
+    private static final Map<Key, WeakReference<ReloadableWordSet>> INSTANCES = new HashMap<>();
+
+    private final Path path;
+
+    private final boolean ignoreCase;
+
+    private final DictionaryWatcher.Subscription subscription;
+
+    private volatile CharArraySet words;
+
+    /**
+     * @param path the file with one word per line
+     * @param ignoreCase true to match words ignoring case
+     * @param reloadInterval the interval to check the file if it cannot be watched
+     */
+    ReloadableWordSet(final Path path, final boolean ignoreCase, final long reloadInterval) {
+        this.path = path;
+        this.ignoreCase = ignoreCase;
+        try {
+            words = load();
+        } catch (final IOException e) {
+            logger.warn("Failed to load {}. No words are used until it is loaded.", path, e);
+            words = CharArraySet.EMPTY_SET;
+        }
+        subscription = DictionaryWatcher.getInstance().subscribe(path, reloadInterval, this, ReloadableWordSet::reload);
+    }
+
+    /**
+     * Returns the word set of the node for the file and options, loading it if no factory uses it.
+     *
+     * @param path the file with one word per line
+     * @param ignoreCase true to match words ignoring case
+     * @param reloadInterval the interval to check the file if it cannot be watched
+     */
+    public static ReloadableWordSet of(final Path path, final boolean ignoreCase, final long reloadInterval) {
+        final Key key = new Key(path.toAbsolutePath().normalize(), ignoreCase, reloadInterval);
+        synchronized (INSTANCES) {
+            final WeakReference<ReloadableWordSet> ref = INSTANCES.get(key);
+            ReloadableWordSet wordSet = ref != null ? ref.get() : null;
+            if (wordSet == null) {
+                final Iterator<WeakReference<ReloadableWordSet>> it = INSTANCES.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().get() == null) {
+                        it.remove();
+                    }
+                }
+                wordSet = new ReloadableWordSet(key.path, ignoreCase, reloadInterval);
+                INSTANCES.put(key, new WeakReference<>(wordSet));
+            }
+            return wordSet;
+        }
+    }
+
+    void reload() {
+        try {
+            words = load();
+        } catch (final IOException e) {
+            logger.warn("Failed to reload {}. The current words are used.", path, e);
+        }
+    }
+
+    private CharArraySet load() throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return CharArraySet.unmodifiableSet(WordlistLoader.getWordSet(reader, new CharArraySet(16, ignoreCase)));
+        }
+    }
+
+    /**
+     * Returns the current snapshot. It is never modified.
+     */
+    public CharArraySet get() {
+        return words;
+    }
+
+    void close() {
+        subscription.close();
+    }
+
+    private static final class Key {
+        private final Path path;
+
+        private final boolean ignoreCase;
+
+        private final long reloadInterval;
+
+        Key(final Path path, final boolean ignoreCase, final long reloadInterval) {
+            this.path = path;
+            this.ignoreCase = ignoreCase;
+            this.reloadInterval = reloadInterval;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return path.equals(other.path) && ignoreCase == other.ignoreCase && reloadInterval == other.reloadInterval;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, ignoreCase, reloadInterval);
+        }
+    }
+}
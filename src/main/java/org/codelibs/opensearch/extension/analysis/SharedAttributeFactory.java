@@ -0,0 +1,24 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import org.apache.lucene.util.Attribute;
+import org.apache.lucene.util.AttributeFactory;
+import org.apache.lucene.util.AttributeImpl;
+import org.apache.lucene.util.AttributeSource;
+
+/**
+ * Attribute factory which returns the attribute instances of the source, so that a delegate tokenizer
+ * created with it writes tokens directly into the attributes of the wrapping tokenizer.
+ */
+public final class SharedAttributeFactory extends AttributeFactory {
+
+    private final AttributeSource source;
+
+    public SharedAttributeFactory(final AttributeSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public AttributeImpl createAttributeInstance(final Class<? extends Attribute> attClass) {
+        return (AttributeImpl) source.addAttribute(attClass);
+    }
+}
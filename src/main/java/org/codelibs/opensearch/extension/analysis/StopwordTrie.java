@@ -0,0 +1,177 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable char trie of stopwords, which tells whether any stopword is a prefix, or a suffix if the trie is reversed,
+ * of a term buffer in one pass over the term without allocating. Children of a node are sorted by label and
+ * stored in flat arrays, so the trie can be shared by all streams of a filter factory.
+ * With ignore_case, stopwords and terms are lower-cased as by {@link String#toLowerCase(Locale)} with {@link Locale#ROOT}.
+ */
+public final class StopwordTrie {
+
+    private final boolean reversed;
+
+    private final boolean ignoreCase;
+
+    // nodes are numbered breadth first, so the children of node i are the nodes from firstChild[i] until firstChild[i + 1]
+    private final int[] firstChild;
+
+    // the char on the edge to each node
+    private final char[] labels;
+
+    private final boolean[] terminals;
+
+    /**
+     * @param words the stopwords
+     * @param reversed true to match suffixes instead of prefixes
+     * @param ignoreCase true to compare lower-cased stopwords and terms
+     */
+    public StopwordTrie(final Collection<String> words, final boolean reversed, final boolean ignoreCase) {
+        this.reversed = reversed;
+        this.ignoreCase = ignoreCase;
+
+        final Node root = new Node();
+        int size = 1;
+        for (final String word : words) {
+            final String key = ignoreCase ? word.toLowerCase(Locale.ROOT) : word;
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                final char c = key.charAt(reversed ? key.length() - 1 - i : i);
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                    size++;
+                }
+                node = child;
+            }
+            node.terminal = true;
+        }
+
+        firstChild = new int[size + 1];
+        labels = new char[size];
+        terminals = new boolean[size];
+        final List<Node> queue = new ArrayList<>(size);
+        queue.add(root);
+        int next = 1;
+        for (int i = 0; i < queue.size(); i++) {
+            final Node node = queue.get(i);
+            terminals[i] = node.terminal;
+            firstChild[i] = next;
+            for (final Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                labels[next] = entry.getKey();
+                queue.add(entry.getValue());
+                next++;
+            }
+        }
+        firstChild[size] = next;
+    }
+
+    /**
+     * Returns true if a stopword is a prefix, or a suffix if this trie is reversed, of the term.
+     */
+    public boolean matches(final char[] buffer, final int length) {
+        if (ignoreCase && hasSpecialCasing(buffer, length)) {
+            final char[] lowerCase = new String(buffer, 0, length).toLowerCase(Locale.ROOT).toCharArray();
+            return matches(lowerCase, lowerCase.length, false);
+        }
+        return matches(buffer, length, ignoreCase);
+    }
+
+    /**
+     * Returns true if the term has a char which {@link String#toLowerCase(Locale)} does not lower-case one code point at a time:
+     * a capital sigma, which depends on its position in the word, or a capital I with dot above, which becomes two chars.
+     */
+    private static boolean hasSpecialCasing(final char[] buffer, final int length) {
+        for (int i = 0; i < length; i++) {
+            final char c = buffer[i];
+            if (c == '\u03A3' || c == '\u0130') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(final char[] buffer, final int length, final boolean lowerCase) {
+        if (terminals[0]) {
+            return true;
+        }
+        int node = 0;
+        if (!reversed) {
+            for (int i = 0; i < length;) {
+                int codePoint = Character.codePointAt(buffer, i, length);
+                final int charCount = Character.charCount(codePoint);
+                i += charCount;
+                if (lowerCase) {
+                    codePoint = Character.toLowerCase(codePoint);
+                }
+                if (Character.isBmpCodePoint(codePoint)) {
+                    node = child(node, (char) codePoint);
+                } else {
+                    node = child(node, Character.highSurrogate(codePoint));
+                    if (node != -1) {
+                        node = child(node, Character.lowSurrogate(codePoint));
+                    }
+                }
+                if (node == -1) {
+                    return false;
+                }
+                if (terminals[node]) {
+                    return true;
+                }
+            }
+        } else {
+            for (int i = length; i > 0;) {
+                int codePoint = Character.codePointBefore(buffer, i, 0);
+                i -= Character.charCount(codePoint);
+                if (lowerCase) {
+                    codePoint = Character.toLowerCase(codePoint);
+                }
+                if (Character.isBmpCodePoint(codePoint)) {
+                    node = child(node, (char) codePoint);
+                } else {
+                    node = child(node, Character.lowSurrogate(codePoint));
+                    if (node != -1) {
+                        node = child(node, Character.highSurrogate(codePoint));
+                    }
+                }
+                if (node == -1) {
+                    return false;
+                }
+                if (terminals[node]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int child(final int node, final char c) {
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+
+        private boolean terminal;
+    }
+}
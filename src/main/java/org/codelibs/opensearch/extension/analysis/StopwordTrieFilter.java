@@ -0,0 +1,25 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import org.apache.lucene.analysis.FilteringTokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * Removes tokens which start, or end if the trie is reversed, with a stopword of the {@link StopwordTrie}.
+ */
+public final class StopwordTrieFilter extends FilteringTokenFilter {
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+
+    private final StopwordTrie stopwords;
+
+    public StopwordTrieFilter(final TokenStream in, final StopwordTrie stopwords) {
+        super(in);
+        this.stopwords = stopwords;
+    }
+
+    @Override
+    protected boolean accept() {
+        return !stopwords.matches(termAtt.buffer(), termAtt.length());
+    }
+}
@@ -8,10 +8,18 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.ParseException;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.core.KeywordTokenizer;
@@ -19,12 +27,17 @@ import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.synonym.SolrSynonymParser;
 import org.apache.lucene.analysis.synonym.SynonymMap;
 import org.apache.lucene.analysis.synonym.WordnetSynonymParser;
+import org.apache.lucene.util.CharsRef;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.env.Environment;
 import org.opensearch.index.analysis.Analysis;
 
 public class SynonymLoader {
+    private static final Logger logger = LogManager.getLogger(SynonymLoader.class);
+
+    public static final String COMPILED_FORMAT = "compiled";
+
     private File reloadableFile = null;
 
     private final Analyzer analyzer;
@@ -39,68 +52,210 @@ public class SynonymLoader {
 
     private volatile long lastModified;
 
-    private volatile long lastChecked;
-
     private volatile SynonymMap synonymMap;
 
+    // set before synonymMap is cleared, so that a reader checking it first always sees a consistent pair
+    private volatile SynonymOverlay overlay;
+
+    // the map of the synonyms file, without the delta file
+    private SynonymMap baseSynonymMap;
+
+    private File deltaFile = null;
+
+    private SynonymMap deltaSynonymMap;
+
+    private CharArraySet deltaMask;
+
+    private long compactionDelay;
+
+    private ScheduledFuture<?> compactionFuture;
+
+    private DictionaryWatcher.Subscription subscription;
+
+    private DictionaryWatcher.Subscription deltaSubscription;
+
+    // null if the analyzer is given by the caller, because the map cannot be shared then
+    private final Boolean ignoreCase;
+
+    private final RefCountedCache.Lease<SynonymMapCache.Key> cacheLease;
+
     public SynonymLoader(final Environment env, final Settings settings, final boolean expand, final Analyzer analyzer) {
+        this(env, settings, expand, analyzer, null);
+    }
+
+    /**
+     * Creates a loader whose synonym map is shared through {@link SynonymMapCache}
+     * with other loaders for the same rules and options.
+     */
+    public SynonymLoader(final Environment env, final Settings settings, final boolean expand, final boolean ignoreCase) {
+        this(env, settings, expand, getAnalyzer(ignoreCase), ignoreCase);
+    }
+
+    private SynonymLoader(final Environment env, final Settings settings, final boolean expand, final Analyzer analyzer,
+            final Boolean ignoreCase) {
         this.env = env;
         this.settings = settings;
         this.expand = expand;
         this.analyzer = analyzer;
+        this.ignoreCase = ignoreCase;
+        this.cacheLease = ignoreCase != null ? SynonymMapCache.getInstance().newLease(this) : null;
 
         createSynonymMap(false);
+
+        final String deltaPath = settings != null ? settings.get("synonyms_delta_path", null) : null;
+        if (deltaPath != null) {
+            deltaFile = env.configDir().resolve(deltaPath).toFile();
+            compactionDelay = settings.getAsTime("synonyms_delta_compaction_delay", TimeValue.timeValueMinutes(5)).getMillis();
+            try {
+                loadDelta();
+            } catch (final Exception e) {
+                throw new IllegalArgumentException("failed to build synonyms delta", e);
+            }
+        }
+
+        // reloads and compactions run on the watcher thread, never on analysis threads
+        if (reloadableFile != null) {
+            subscription = DictionaryWatcher.getInstance().subscribe(reloadableFile.toPath(), reloadInterval, this,
+                    SynonymLoader::reloadIfModified);
+        }
+        if (deltaFile != null) {
+            final long interval = settings.getAsTime("reload_interval", TimeValue.timeValueMinutes(1)).getMillis();
+            deltaSubscription = DictionaryWatcher.getInstance().subscribe(deltaFile.toPath(), interval, this, SynonymLoader::reloadDelta);
+        }
     }
 
+    /**
+     * Returns true if the synonym map was reloaded after the given time.
+     * The file is checked in the background, so this method does not perform any I/O.
+     */
     public boolean isUpdate(final long time) {
-        if (System.currentTimeMillis() - lastChecked > reloadInterval) {
-            lastChecked = System.currentTimeMillis();
-            final long timestamp = reloadableFile.lastModified();
-            if (timestamp != time) {
-                synchronized (reloadableFile) {
-                    if (timestamp != lastModified) {
-                        createSynonymMap(true);
-                        return true;
-                    }
+        return lastModified != time;
+    }
+
+    void reloadIfModified() {
+        final long timestamp = reloadableFile.lastModified();
+        if (timestamp != lastModified) {
+            try {
+                createSynonymMap(true);
+            } catch (final Exception e) {
+                logger.warn("Failed to reload {}. The current synonyms are used.", reloadableFile.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    public SynonymMap getSynonymMap() {
+        return synonymMap;
+    }
+
+    /**
+     * Returns the delta rules layered over the base map, or null if there are no delta rules
+     * or they are already compacted into {@link #getSynonymMap()}.
+     * Callers should check this first and use {@link SynonymOverlay#getBase()} if it is not null.
+     */
+    public SynonymOverlay getSynonymOverlay() {
+        return overlay;
+    }
+
+    private void publish(final SynonymMap base) {
+        baseSynonymMap = base;
+        if (deltaSynonymMap == null && deltaMask == null) {
+            synonymMap = base;
+            overlay = null;
+            return;
+        }
+        overlay = new SynonymOverlay(base, deltaSynonymMap, deltaMask);
+        synonymMap = base;
+        scheduleCompaction();
+    }
+
+    /**
+     * Reads the delta file. A line starting with "-" removes the rules of the rest of the line,
+     * and other lines add rules, which replace the base rules for the same inputs.
+     */
+    private void loadDelta() throws IOException, ParseException {
+        deltaSynonymMap = null;
+        deltaMask = null;
+        if (deltaFile.isFile()) {
+            final StringBuilder addRules = new StringBuilder();
+            final StringBuilder removeRules = new StringBuilder();
+            for (final String line : Files.readAllLines(deltaFile.toPath(), StandardCharsets.UTF_8)) {
+                if (line.startsWith("-")) {
+                    removeRules.append(line, 1, line.length()).append('\n');
+                } else {
+                    addRules.append(line).append('\n');
                 }
             }
+            final CharArraySet mask = new CharArraySet(16, Boolean.TRUE.equals(ignoreCase));
+            final SynonymMap.Parser addParser = newParser(getFormat(), expand, analyzer, mask);
+            addParser.parse(new StringReader(addRules.toString()));
+            newParser(getFormat(), expand, analyzer, mask).parse(new StringReader(removeRules.toString()));
+            if (!mask.isEmpty()) {
+                deltaSynonymMap = addParser.build();
+                deltaMask = mask;
+            }
         }
+        publish(baseSynonymMap);
+    }
 
-        if (lastModified != time) {
-            return true;
+    void reloadDelta() {
+        try {
+            loadDelta();
+        } catch (final Exception e) {
+            logger.warn("Failed to reload {}. The current synonyms are used.", deltaFile.getAbsolutePath(), e);
         }
+    }
 
-        return false;
+    private void scheduleCompaction() {
+        if (compactionFuture != null) {
+            compactionFuture.cancel(false);
+        }
+        compactionFuture = DictionaryWatcher.getInstance().schedule(this::compact, compactionDelay);
     }
 
-    public SynonymMap getSynonymMap() {
-        return synonymMap;
+    void compact() {
+        final SynonymOverlay current = overlay;
+        if (current == null) {
+            return;
+        }
+        try {
+            final SynonymMap compacted = current.compact();
+            if (overlay == current) {
+                synonymMap = compacted.fst == null ? null : compacted;
+                overlay = null;
+            }
+        } catch (final Exception e) {
+            logger.warn("Failed to compact synonyms of {}.", deltaFile.getAbsolutePath(), e);
+        }
     }
 
     protected void createSynonymMap(final boolean reload) {
+        if (COMPILED_FORMAT.equals(settings.get("synonyms_format"))) {
+            loadCompiledSynonymMap();
+            return;
+        }
+
         try (Reader rulesReader = getReader(reload)) {
-            if (rulesReader instanceof StringReader && ((StringReader) rulesReader).toString().length() == 0) {
-                synonymMap = null;
+            final String rules = readRules(rulesReader);
+            if (rules.isEmpty()) {
+                publish(null);
                 return;
             }
 
-            SynonymMap.Builder parser = null;
-
-            if ("wordnet".equalsIgnoreCase(settings.get("format"))) {
-                parser = new WordnetSynonymParser(true, expand, analyzer);
-                ((WordnetSynonymParser) parser).parse(rulesReader);
+            final SynonymMap localSynonymMap;
+            if (cacheLease != null) {
+                final String path = reloadableFile != null ? reloadableFile.getAbsolutePath() : settings.get("synonyms_path");
+                final SynonymMapCache.Key key = new SynonymMapCache.Key(path, rules, getFormat(), expand, ignoreCase);
+                localSynonymMap = SynonymMapCache.getInstance().acquire(cacheLease, key,
+                        () -> CompiledSynonymCache.get(env, rules, getFormat(), expand, ignoreCase, () -> buildSynonymMap(rules)));
             } else {
-                parser = new SolrSynonymParser(true, expand, analyzer);
-                ((SolrSynonymParser) parser).parse(rulesReader);
+                localSynonymMap = buildSynonymMap(rules);
             }
-
-            final SynonymMap localSynonymMap = parser.build();
             if (localSynonymMap.fst == null) {
-                synonymMap = null;
+                publish(null);
                 return;
             }
 
-            synonymMap = localSynonymMap;
+            publish(localSynonymMap);
 
             if (reloadableFile != null) {
                 lastModified = reloadableFile.lastModified();
@@ -113,6 +268,88 @@ public class SynonymLoader {
         }
     }
 
+    private void loadCompiledSynonymMap() {
+        final String filePath = settings.get("synonyms_path", null);
+        if (filePath == null) {
+            throw new IllegalArgumentException("synonyms_path is required for synonyms_format: " + COMPILED_FORMAT);
+        }
+        final Path path = env.configDir().resolve(filePath);
+        try {
+            final BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            final SynonymMap localSynonymMap;
+            if (cacheLease != null) {
+                // a compiled file is identified by its size and timestamp, not by hashing its content
+                final SynonymMapCache.Key key = new SynonymMapCache.Key(path.toAbsolutePath().toString(),
+                        attrs.size() + ":" + attrs.lastModifiedTime().toMillis(), COMPILED_FORMAT, expand, ignoreCase);
+                localSynonymMap = SynonymMapCache.getInstance().acquire(cacheLease, key,
+                        () -> SynonymMapCompiler.load(path, expand, ignoreCase, true));
+            } else {
+                localSynonymMap = SynonymMapCompiler.load(path, expand, null, true);
+            }
+            publish(localSynonymMap.fst == null ? null : localSynonymMap);
+            lastModified = attrs.lastModifiedTime().toMillis();
+        } catch (final Exception e) {
+            throw new IllegalArgumentException("failed to load compiled synonyms", e);
+        }
+
+        if (settings.getAsBoolean("dynamic_reload", false)) {
+            reloadableFile = path.toFile();
+            reloadInterval = settings.getAsTime("reload_interval", TimeValue.timeValueMinutes(1)).getMillis();
+        }
+    }
+
+    private SynonymMap buildSynonymMap(final String rules) throws IOException, ParseException {
+        return buildSynonymMap(rules, getFormat(), expand, analyzer);
+    }
+
+    static SynonymMap buildSynonymMap(final String rules, final String format, final boolean expand, final Analyzer analyzer)
+            throws IOException, ParseException {
+        final SynonymMap.Parser parser = newParser(format, expand, analyzer, null);
+        parser.parse(new StringReader(rules));
+        return parser.build();
+    }
+
+    /**
+     * @param inputs the set to collect the analyzed inputs of the rules into, or null
+     */
+    private static SynonymMap.Parser newParser(final String format, final boolean expand, final Analyzer analyzer,
+            final CharArraySet inputs) {
+        if ("wordnet".equalsIgnoreCase(format)) {
+            return new WordnetSynonymParser(true, expand, analyzer) {
+                @Override
+                public void add(final CharsRef input, final CharsRef output, final boolean includeOrig) {
+                    if (inputs != null) {
+                        inputs.add(input.toString());
+                    }
+                    super.add(input, output, includeOrig);
+                }
+            };
+        }
+        return new SolrSynonymParser(true, expand, analyzer) {
+            @Override
+            public void add(final CharsRef input, final CharsRef output, final boolean includeOrig) {
+                if (inputs != null) {
+                    inputs.add(input.toString());
+                }
+                super.add(input, output, includeOrig);
+            }
+        };
+    }
+
+    private String getFormat() {
+        return "wordnet".equalsIgnoreCase(settings.get("format")) ? "wordnet" : "solr";
+    }
+
+    static String readRules(final Reader reader) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        final char[] buf = new char[8192];
+        int len;
+        while ((len = reader.read(buf)) != -1) {
+            sb.append(buf, 0, len);
+        }
+        return sb.toString();
+    }
+
     private Reader getReader(final boolean reload) throws IOException {
         if (reload) {
             if (reloadableFile == null) {
@@ -162,13 +399,31 @@ public class SynonymLoader {
     }
 
     public boolean isReloadable() {
-        return reloadableFile != null;
+        return reloadableFile != null || deltaFile != null;
     }
 
     public long getLastModified() {
         return lastModified;
     }
 
+    /**
+     * Releases the shared synonym map. It is also released when this loader is garbage collected.
+     */
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+        if (deltaSubscription != null) {
+            deltaSubscription.close();
+        }
+        if (compactionFuture != null) {
+            compactionFuture.cancel(false);
+        }
+        if (cacheLease != null) {
+            cacheLease.close();
+        }
+    }
+
     protected static Analyzer getAnalyzer(final boolean ignoreCase) {
         return new Analyzer() {
             @Override
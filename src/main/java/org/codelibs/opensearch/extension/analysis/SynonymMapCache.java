@@ -0,0 +1,66 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.util.Objects;
+
+import org.apache.lucene.analysis.synonym.SynonymMap;
+
+/**
+ * Node-level cache of {@link SynonymMap}s, so that indices and analyzers which use
+ * the same synonym rules with the same options share one FST.
+ */
+public final class SynonymMapCache extends RefCountedCache<SynonymMapCache.Key, SynonymMap> {
+
+    private static final SynonymMapCache INSTANCE = new SynonymMapCache();
+
+    SynonymMapCache() {
+        // nothing
+    }
+
+    public static SynonymMapCache getInstance() {
+        return INSTANCE;
+    }
+
+    public static final class Key {
+        private final String path;
+
+        private final String contentHash;
+
+        private final String format;
+
+        private final boolean expand;
+
+        private final boolean ignoreCase;
+
+        public Key(final String path, final String content, final String format, final boolean expand, final boolean ignoreCase) {
+            this.path = path;
+            this.contentHash = Digests.sha256Hex(content);
+            this.format = format;
+            this.expand = expand;
+            this.ignoreCase = ignoreCase;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return expand == other.expand && ignoreCase == other.ignoreCase && Objects.equals(path, other.path)
+                    && contentHash.equals(other.contentHash) && Objects.equals(format, other.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, contentHash, format, expand, ignoreCase);
+        }
+
+        @Override
+        public String toString() {
+            return "Key [path=" + path + ", contentHash=" + contentHash + ", format=" + format + ", expand=" + expand + ", ignoreCase="
+                    + ignoreCase + "]";
+        }
+    }
+}
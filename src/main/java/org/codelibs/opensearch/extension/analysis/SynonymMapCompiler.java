@@ -0,0 +1,185 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ByteBuffersDataInput;
+import org.apache.lucene.store.ByteBuffersIndexInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.OutputStreamIndexOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefHash;
+import org.apache.lucene.util.fst.ByteSequenceOutputs;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.OffHeapFSTStore;
+
+/**
+ * Compiles Solr or WordNet synonym rules into a binary file, which is loaded by
+ * {@link SynonymLoader} with <code>synonyms_format: compiled</code>.
+ * The FST of a loaded file is read from a memory-mapped buffer and is not copied to the heap.
+ *
+ * <pre>
+ * java -cp "plugins/analysis-extension/*:lib/*" org.codelibs.opensearch.extension.analysis.SynonymMapCompiler \
+ *     [--format=solr|wordnet] [--expand=true|false] [--ignore_case=true|false] input.txt output.bin
+ * </pre>
+ */
+public final class SynonymMapCompiler {
+
+    static final String CODEC_NAME = "AnalysisExtensionSynonymMap";
+
+    static final int VERSION_START = 0;
+
+    static final int VERSION_CURRENT = VERSION_START;
+
+    // all mapped chunks except the last must have the same power-of-two size
+    private static final int CHUNK_SIZE = 1 << 30;
+
+    private SynonymMapCompiler() {
+        // nothing
+    }
+
+    public static void main(final String[] args) throws IOException {
+        String format = "solr";
+        boolean expand = true;
+        boolean ignoreCase = false;
+        final List<String> files = new ArrayList<>();
+        for (final String arg : args) {
+            if (arg.startsWith("--format=")) {
+                format = arg.substring("--format=".length());
+            } else if (arg.startsWith("--expand=")) {
+                expand = Boolean.parseBoolean(arg.substring("--expand=".length()));
+            } else if (arg.startsWith("--ignore_case=")) {
+                ignoreCase = Boolean.parseBoolean(arg.substring("--ignore_case=".length()));
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("Usage: SynonymMapCompiler [--format=solr|wordnet] [--expand=true|false] [--ignore_case=true|false]"
+                    + " <input> <output>");
+            System.exit(1);
+            return;
+        }
+
+        final String rules;
+        try (Reader reader = Files.newBufferedReader(Paths.get(files.get(0)), StandardCharsets.UTF_8)) {
+            rules = SynonymLoader.readRules(reader);
+        }
+        final SynonymMap synonymMap;
+        try {
+            synonymMap = SynonymLoader.buildSynonymMap(rules, format, expand, SynonymLoader.getAnalyzer(ignoreCase));
+        } catch (final Exception e) {
+            throw new IllegalArgumentException("failed to build synonyms", e);
+        }
+        write(synonymMap, format, expand, ignoreCase, Paths.get(files.get(1)));
+    }
+
+    /**
+     * Writes the map to a temporary file and moves it to the target, so that a node
+     * which has mapped the previous file keeps reading a consistent copy.
+     */
+    public static void write(final SynonymMap synonymMap, final String format, final boolean expand, final boolean ignoreCase,
+            final Path file) throws IOException {
+        final Path dir = file.toAbsolutePath().getParent();
+        final Path tempFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(tempFile);
+                    IndexOutput out = new OutputStreamIndexOutput(tempFile.toString(), file.getFileName().toString(), os, 8192)) {
+                CodecUtil.writeHeader(out, CODEC_NAME, VERSION_CURRENT);
+                out.writeString(format);
+                out.writeByte((byte) (expand ? 1 : 0));
+                out.writeByte((byte) (ignoreCase ? 1 : 0));
+                out.writeVInt(synonymMap.maxHorizontalContext);
+                final BytesRef scratch = new BytesRef();
+                final int size = synonymMap.words.size();
+                out.writeVInt(size);
+                for (int i = 0; i < size; i++) {
+                    synonymMap.words.get(i, scratch);
+                    out.writeVInt(scratch.length);
+                    out.writeBytes(scratch.bytes, scratch.offset, scratch.length);
+                }
+                out.writeByte((byte) (synonymMap.fst != null ? 1 : 0));
+                if (synonymMap.fst != null) {
+                    synonymMap.fst.save(out, out);
+                }
+                CodecUtil.writeFooter(out);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Loads a compiled file. The FST stays in the mapped file, which is unmapped when the map is garbage collected.
+     *
+     * @param expand the expected expand option
+     * @param ignoreCase the expected ignore_case option, or null if it is not checked
+     * @param verify whether to verify the checksum of the entire file, which reads all of its pages;
+     *        otherwise only the header and the footer are checked, which still rejects a truncated file
+     */
+    public static SynonymMap load(final Path file, final boolean expand, final Boolean ignoreCase, final boolean verify)
+            throws IOException {
+        final IndexInput in = map(file);
+        if (verify) {
+            CodecUtil.checksumEntireFile(in);
+        } else {
+            CodecUtil.retrieveChecksum(in);
+        }
+        in.seek(0);
+        CodecUtil.checkHeader(in, CODEC_NAME, VERSION_START, VERSION_CURRENT);
+        in.readString();
+        final boolean fileExpand = in.readByte() == 1;
+        final boolean fileIgnoreCase = in.readByte() == 1;
+        if (fileExpand != expand) {
+            throw new IllegalArgumentException(file + " is compiled with expand=" + fileExpand + ", but expand is " + expand);
+        }
+        if (ignoreCase != null && fileIgnoreCase != ignoreCase) {
+            throw new IllegalArgumentException(
+                    file + " is compiled with ignore_case=" + fileIgnoreCase + ", but ignore_case is " + ignoreCase);
+        }
+        final int maxHorizontalContext = in.readVInt();
+        final int size = in.readVInt();
+        final BytesRefHash words = new BytesRefHash();
+        final BytesRef scratch = new BytesRef();
+        for (int i = 0; i < size; i++) {
+            final int length = in.readVInt();
+            scratch.bytes = ArrayUtil.growNoCopy(scratch.bytes, length);
+            scratch.length = length;
+            in.readBytes(scratch.bytes, 0, length);
+            words.add(scratch);
+        }
+        FST<BytesRef> fst = null;
+        if (in.readByte() == 1) {
+            final FST.FSTMetadata<BytesRef> metadata = FST.readMetadata(in, ByteSequenceOutputs.getSingleton());
+            fst = FST.fromFSTReader(metadata, new OffHeapFSTStore(in, in.getFilePointer(), metadata));
+        }
+        return new SynonymMap(fst, words, maxHorizontalContext);
+    }
+
+    private static IndexInput map(final Path file) throws IOException {
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long length = channel.size();
+            for (long pos = 0; pos < length; pos += CHUNK_SIZE) {
+                buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(CHUNK_SIZE, length - pos)));
+            }
+        }
+        return new ByteBuffersIndexInput(new ByteBuffersDataInput(buffers), file.toString());
+    }
+}
@@ -0,0 +1,97 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.CharsRefBuilder;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.fst.IntsRefFSTEnum;
+
+/**
+ * Synonym rules of a delta file layered over a base {@link SynonymMap}.
+ * Every input of the delta, added or removed, masks the same input of the base map, so the longer
+ * of the overlay match and the unmasked base match is what a single map built from both would return.
+ */
+public final class SynonymOverlay {
+
+    private final SynonymMap base;
+
+    private final SynonymMap map;
+
+    private final CharArraySet mask;
+
+    /**
+     * @param base the base map, or null if it is empty
+     * @param map the map of the added rules, or null if nothing is added
+     * @param mask the inputs of the added and removed rules
+     */
+    public SynonymOverlay(final SynonymMap base, final SynonymMap map, final CharArraySet mask) {
+        this.base = base != null && base.fst != null ? base : null;
+        this.map = map != null && map.fst != null ? map : null;
+        this.mask = mask;
+    }
+
+    public SynonymMap getBase() {
+        return base;
+    }
+
+    public SynonymMap getMap() {
+        return map;
+    }
+
+    public CharArraySet getMask() {
+        return mask;
+    }
+
+    /**
+     * Builds a single map equivalent to this overlay.
+     */
+    public SynonymMap compact() throws IOException {
+        final SynonymMap.Builder builder = new SynonymMap.Builder(true);
+        if (base != null) {
+            addAll(builder, base, mask);
+        }
+        if (map != null) {
+            addAll(builder, map, null);
+        }
+        return builder.build();
+    }
+
+    private static void addAll(final SynonymMap.Builder builder, final SynonymMap synonymMap, final CharArraySet mask) throws IOException {
+        final IntsRefFSTEnum<BytesRef> fstEnum = new IntsRefFSTEnum<>(synonymMap.fst);
+        final CharsRefBuilder input = new CharsRefBuilder();
+        final CharsRefBuilder output = new CharsRefBuilder();
+        final BytesRef scratch = new BytesRef();
+        final ByteArrayDataInput bytesReader = new ByteArrayDataInput();
+        IntsRefFSTEnum.InputOutput<BytesRef> entry;
+        while ((entry = fstEnum.next()) != null) {
+            final IntsRef codePoints = entry.input;
+            input.clear();
+            for (int i = 0; i < codePoints.length; i++) {
+                final int codePoint = codePoints.ints[codePoints.offset + i];
+                if (Character.isBmpCodePoint(codePoint)) {
+                    input.append((char) codePoint);
+                } else {
+                    input.append(Character.highSurrogate(codePoint));
+                    input.append(Character.lowSurrogate(codePoint));
+                }
+            }
+            if (mask != null && mask.contains(input.chars(), 0, input.length())) {
+                continue;
+            }
+            // same encoding as SynonymMap.Builder: (count << 1 | keepOrig ? 0 : 1) followed by word ords
+            bytesReader.reset(entry.output.bytes, entry.output.offset, entry.output.length);
+            final int code = bytesReader.readVInt();
+            final boolean keepOrig = (code & 1) == 0;
+            final int count = code >>> 1;
+            for (int i = 0; i < count; i++) {
+                synonymMap.words.get(bytesReader.readVInt(), scratch);
+                output.copyUTF8Bytes(scratch);
+                builder.add(input.get(), output.get(), keepOrig);
+            }
+        }
+    }
+}
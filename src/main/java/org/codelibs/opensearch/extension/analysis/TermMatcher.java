@@ -0,0 +1,376 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.util.automaton.Automata;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.CharacterRunAutomaton;
+import org.apache.lucene.util.automaton.Operations;
+import org.apache.lucene.util.automaton.TooComplexToDeterminizeException;
+
+/**
+ * Tells whether a whole term matches a {@link Pattern}, reading the term buffer directly if possible.
+ * Alternations of literal words are matched with a {@link CharArraySet}, and patterns made of literals,
+ * character classes, groups, alternations and greedy quantifiers with a {@link CharacterRunAutomaton}.
+ * Other patterns fall back to {@link Pattern#matcher(CharSequence)}.
+ * Instances are immutable and can be shared by all streams of a factory.
+ */
+public abstract class TermMatcher {
+
+    TermMatcher() {
+        // nothing
+    }
+
+    /**
+     * Returns true if the pattern matches the whole term.
+     */
+    public abstract boolean matches(char[] buffer, int length);
+
+    /**
+     * Compiles the pattern, throwing {@link java.util.regex.PatternSyntaxException} if it is invalid.
+     */
+    public static TermMatcher compile(final String regex) {
+        final Pattern pattern = Pattern.compile(regex);
+        final Parser parser = new Parser(regex);
+        final Automaton automaton;
+        try {
+            automaton = parser.parse();
+        } catch (final UnsupportedPatternException e) {
+            return new RegexMatcher(pattern);
+        }
+        if (parser.words != null) {
+            final CharArraySet words = new CharArraySet(parser.words, false);
+            return new WordSetMatcher(CharArraySet.unmodifiableSet(words));
+        }
+        try {
+            return new AutomatonMatcher(
+                    new CharacterRunAutomaton(Operations.determinize(automaton, Operations.DEFAULT_DETERMINIZE_WORK_LIMIT)));
+        } catch (final TooComplexToDeterminizeException e) {
+            return new RegexMatcher(pattern);
+        }
+    }
+
+    static final class WordSetMatcher extends TermMatcher {
+        private final CharArraySet words;
+
+        WordSetMatcher(final CharArraySet words) {
+            this.words = words;
+        }
+
+        @Override
+        public boolean matches(final char[] buffer, final int length) {
+            return words.contains(buffer, 0, length);
+        }
+    }
+
+    static final class AutomatonMatcher extends TermMatcher {
+        private final CharacterRunAutomaton automaton;
+
+        AutomatonMatcher(final CharacterRunAutomaton automaton) {
+            this.automaton = automaton;
+        }
+
+        @Override
+        public boolean matches(final char[] buffer, final int length) {
+            return automaton.run(buffer, 0, length);
+        }
+    }
+
+    static final class RegexMatcher extends TermMatcher {
+        private final Pattern pattern;
+
+        RegexMatcher(final Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean matches(final char[] buffer, final int length) {
+            return pattern.matcher(new String(buffer, 0, length)).matches();
+        }
+    }
+
+    private static final class UnsupportedPatternException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedPatternException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Converts the subset of the java.util.regex syntax whose semantics an automaton reproduces exactly.
+     */
+    private static final class Parser {
+        // the line terminators, which '.' does not match without flags
+        private static final int[] LINE_TERMINATORS = { '\n', '\r', 0x85, 0x2028, 0x2029 };
+
+        private final int[] codePoints;
+
+        private int pos;
+
+        // the alternatives if the pattern has only literal words
+        private List<String> words = new ArrayList<>();
+
+        // the code point of the last atom if it is a literal, else -1
+        private int literal;
+
+        Parser(final String regex) {
+            codePoints = regex.codePoints().toArray();
+        }
+
+        Automaton parse() throws UnsupportedPatternException {
+            final Automaton automaton = parseAlternation(true);
+            if (pos < codePoints.length) {
+                throw new UnsupportedPatternException();
+            }
+            return automaton;
+        }
+
+        private boolean more() {
+            return pos < codePoints.length;
+        }
+
+        private int peek() {
+            return codePoints[pos];
+        }
+
+        private Automaton parseAlternation(final boolean topLevel) throws UnsupportedPatternException {
+            final List<Automaton> alternatives = new ArrayList<>();
+            alternatives.add(parseSequence(topLevel));
+            while (more() && peek() == '|') {
+                pos++;
+                alternatives.add(parseSequence(topLevel));
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : Operations.union(alternatives);
+        }
+
+        private Automaton parseSequence(final boolean topLevel) throws UnsupportedPatternException {
+            final List<Automaton> atoms = new ArrayList<>();
+            final StringBuilder word = new StringBuilder();
+            while (more() && peek() != '|' && peek() != ')') {
+                Automaton atom = parseAtom();
+                if (more() && isQuantifier(peek())) {
+                    atom = parseQuantifier(atom);
+                    words = null;
+                } else if (literal != -1) {
+                    word.appendCodePoint(literal);
+                } else {
+                    words = null;
+                }
+                atoms.add(atom);
+            }
+            if (topLevel && words != null) {
+                words.add(word.toString());
+            } else {
+                words = null;
+            }
+            if (atoms.isEmpty()) {
+                return Automata.makeEmptyString();
+            }
+            return atoms.size() == 1 ? atoms.get(0) : Operations.concatenate(atoms);
+        }
+
+        private static boolean isQuantifier(final int c) {
+            return c == '*' || c == '+' || c == '?' || c == '{';
+        }
+
+        private Automaton parseAtom() throws UnsupportedPatternException {
+            final int c = codePoints[pos++];
+            literal = -1;
+            switch (c) {
+            case '.':
+                return makeClass(LINE_TERMINATORS, LINE_TERMINATORS, true);
+            case '(':
+                if (more() && peek() == '?') {
+                    if (pos + 1 < codePoints.length && codePoints[pos + 1] == ':') {
+                        pos += 2;
+                    } else {
+                        throw new UnsupportedPatternException();
+                    }
+                }
+                final Automaton group = parseAlternation(false);
+                if (!more() || peek() != ')') {
+                    throw new UnsupportedPatternException();
+                }
+                pos++;
+                return group;
+            case '[':
+                return parseClass();
+            case '\\':
+                if (!more()) {
+                    throw new UnsupportedPatternException();
+                }
+                final int escaped = codePoints[pos++];
+                if (escaped == 'd') {
+                    return Automata.makeCharRange('0', '9');
+                }
+                if (Character.isLetterOrDigit(escaped)) {
+                    throw new UnsupportedPatternException();
+                }
+                literal = escaped;
+                return Automata.makeChar(escaped);
+            case '^':
+            case '$':
+            case ')':
+            case ']':
+            case '}':
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw new UnsupportedPatternException();
+            default:
+                literal = c;
+                return Automata.makeChar(c);
+            }
+        }
+
+        private Automaton parseQuantifier(final Automaton atom) throws UnsupportedPatternException {
+            final int c = codePoints[pos++];
+            final Automaton result;
+            if (c == '*') {
+                result = Operations.repeat(atom);
+            } else if (c == '+') {
+                result = Operations.repeat(atom, 1);
+            } else if (c == '?') {
+                result = Operations.optional(atom);
+            } else {
+                final int min = parseNumber();
+                int max = min;
+                if (more() && peek() == ',') {
+                    pos++;
+                    max = more() && peek() == '}' ? -1 : parseNumber();
+                }
+                if (!more() || peek() != '}' || (max != -1 && max < min)) {
+                    throw new UnsupportedPatternException();
+                }
+                pos++;
+                result = max == -1 ? Operations.repeat(atom, min) : Operations.repeat(atom, min, max);
+            }
+            // lazy and possessive quantifiers are not supported
+            if (more() && (isQuantifier(peek()))) {
+                throw new UnsupportedPatternException();
+            }
+            return result;
+        }
+
+        private int parseNumber() throws UnsupportedPatternException {
+            final int start = pos;
+            int value = 0;
+            while (more() && peek() >= '0' && peek() <= '9') {
+                value = value * 10 + (peek() - '0');
+                if (value > 1000) {
+                    throw new UnsupportedPatternException();
+                }
+                pos++;
+            }
+            if (pos == start) {
+                throw new UnsupportedPatternException();
+            }
+            return value;
+        }
+
+        private Automaton parseClass() throws UnsupportedPatternException {
+            boolean negated = false;
+            if (more() && peek() == '^') {
+                negated = true;
+                pos++;
+            }
+            final List<int[]> ranges = new ArrayList<>();
+            boolean first = true;
+            while (true) {
+                if (!more()) {
+                    throw new UnsupportedPatternException();
+                }
+                int c = codePoints[pos++];
+                if (c == ']' && !first) {
+                    break;
+                }
+                if (c == '[' || c == ']' || (c == '&' && more() && peek() == '&')) {
+                    throw new UnsupportedPatternException();
+                }
+                first = false;
+                if (c == '\\') {
+                    if (!more()) {
+                        throw new UnsupportedPatternException();
+                    }
+                    c = codePoints[pos++];
+                    if (c == 'd') {
+                        ranges.add(new int[] { '0', '9' });
+                        continue;
+                    }
+                    if (Character.isLetterOrDigit(c)) {
+                        throw new UnsupportedPatternException();
+                    }
+                }
+                if (pos + 1 < codePoints.length && peek() == '-' && codePoints[pos + 1] != ']') {
+                    pos++;
+                    final int end = codePoints[pos++];
+                    if (end == '\\' || end == '[' || end < c) {
+                        throw new UnsupportedPatternException();
+                    }
+                    ranges.add(new int[] { c, end });
+                } else {
+                    ranges.add(new int[] { c, c });
+                }
+            }
+            final int[] from = new int[ranges.size()];
+            final int[] to = new int[ranges.size()];
+            for (int i = 0; i < ranges.size(); i++) {
+                from[i] = ranges.get(i)[0];
+                to[i] = ranges.get(i)[1];
+            }
+            return makeClass(from, to, negated);
+        }
+
+        /**
+         * Returns the automaton of one code point in the ranges, or not in them if negated.
+         */
+        private static Automaton makeClass(final int[] from, final int[] to, final boolean negated) {
+            final Integer[] order = new Integer[from.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(from[a], from[b]));
+            final List<int[]> merged = new ArrayList<>();
+            for (final int i : order) {
+                final int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && from[i] <= last[1] + 1) {
+                    last[1] = Math.max(last[1], to[i]);
+                } else {
+                    merged.add(new int[] { from[i], to[i] });
+                }
+            }
+            final List<int[]> ranges;
+            if (negated) {
+                ranges = new ArrayList<>();
+                int next = 0;
+                for (final int[] range : merged) {
+                    if (range[0] > next) {
+                        ranges.add(new int[] { next, range[0] - 1 });
+                    }
+                    next = range[1] + 1;
+                }
+                if (next <= Character.MAX_CODE_POINT) {
+                    ranges.add(new int[] { next, Character.MAX_CODE_POINT });
+                }
+            } else {
+                ranges = merged;
+            }
+            if (ranges.isEmpty()) {
+                return Automata.makeEmpty();
+            }
+            final int[] starts = new int[ranges.size()];
+            final int[] ends = new int[ranges.size()];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = ranges.get(i)[0];
+                ends[i] = ranges.get(i)[1];
+            }
+            return Automata.makeCharClass(starts, ends);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.KeywordMarkerFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * Marks the words of a {@link ReloadableWordSet} as keywords. The snapshot is taken at {@link #reset()},
+ * so a stream sees one version of the words.
+ */
+public final class WordSetKeywordMarkerFilter extends KeywordMarkerFilter {
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+
+    private final ReloadableWordSet wordSet;
+
+    private CharArraySet keywords;
+
+    public WordSetKeywordMarkerFilter(final TokenStream in, final ReloadableWordSet wordSet) {
+        super(in);
+        this.wordSet = wordSet;
+        keywords = wordSet.get();
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        keywords = wordSet.get();
+    }
+
+    @Override
+    protected boolean isKeyword() {
+        return keywords.contains(termAtt.buffer(), 0, termAtt.length());
+    }
+}
@@ -0,0 +1,38 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.FilteringTokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * Removes the words of a {@link ReloadableWordSet}. The snapshot is taken at {@link #reset()},
+ * so a stream sees one version of the words.
+ */
+public final class WordSetStopFilter extends FilteringTokenFilter {
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+
+    private final ReloadableWordSet wordSet;
+
+    private CharArraySet stopWords;
+
+    public WordSetStopFilter(final TokenStream in, final ReloadableWordSet wordSet) {
+        super(in);
+        this.wordSet = wordSet;
+        stopWords = wordSet.get();
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        stopWords = wordSet.get();
+    }
+
+    @Override
+    protected boolean accept() {
+        return !stopWords.contains(termAtt.buffer(), 0, termAtt.length());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.FilteringTokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ja.JapaneseBaseFormFilter;
+import org.apache.lucene.analysis.ja.JapaneseKatakanaStemFilter;
+import org.apache.lucene.analysis.ja.JapanesePartOfSpeechStopFilter;
+import org.apache.lucene.analysis.ja.tokenattributes.BaseFormAttribute;
+import org.apache.lucene.analysis.ja.tokenattributes.PartOfSpeechAttribute;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.codelibs.opensearch.extension.analysis.PartOfSpeechMatcher;
+
+/**
+ * Filter which applies {@link JapaneseBaseFormFilter}, {@link JapanesePartOfSpeechStopFilter},
+ * {@link JapaneseKatakanaStemFilter} and a stop filter to each token in one pass.
+ * The output is the same as the chain of these filters, and the base form is not copied for removed tokens.
+ * Stop words may be null to skip the last stage.
+ */
+public final class JapaneseFusedFilter extends FilteringTokenFilter {
+
+    private static final char PROLONGED_SOUND_MARK = 'ー';
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+
+    private final KeywordAttribute keywordAtt = addAttribute(KeywordAttribute.class);
+
+    private final BaseFormAttribute baseFormAtt = addAttribute(BaseFormAttribute.class);
+
+    private final PartOfSpeechAttribute posAtt = addAttribute(PartOfSpeechAttribute.class);
+
+    private final PartOfSpeechMatcher stopTags;
+
+    private final int minimumLength;
+
+    private final CharArraySet stopWords;
+
+    public JapaneseFusedFilter(final TokenStream input, final PartOfSpeechMatcher stopTags, final int minimumLength, final CharArraySet stopWords) {
+        super(input);
+        this.stopTags = stopTags;
+        this.minimumLength = minimumLength;
+        this.stopWords = stopWords;
+    }
+
+    @Override
+    protected boolean accept() {
+        final String pos = posAtt.getPartOfSpeech();
+        if (stopTags.matches(pos)) {
+            return false;
+        }
+        if (!keywordAtt.isKeyword()) {
+            final String baseForm = baseFormAtt.getBaseForm();
+            if (baseForm != null) {
+                termAtt.setEmpty().append(baseForm);
+            }
+            termAtt.setLength(stem(termAtt.buffer(), termAtt.length()));
+        }
+        return stopWords == null || !stopWords.contains(termAtt.buffer(), 0, termAtt.length());
+    }
+
+    private int stem(final char[] term, final int length) {
+        if (length == 0 || length < minimumLength || term[length - 1] != PROLONGED_SOUND_MARK) {
+            return length;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.UnicodeBlock.of(term[i]) != Character.UnicodeBlock.KATAKANA) {
+                return length;
+            }
+        }
+        return length - 1;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import static java.util.Collections.singletonMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ja.JapaneseAnalyzer;
+import org.apache.lucene.analysis.ja.JapaneseKatakanaStemFilter;
+import org.apache.lucene.analysis.ja.JapaneseNumberFilter;
+import org.apache.lucene.search.suggest.analyzing.SuggestStopFilter;
+import org.codelibs.opensearch.extension.analysis.PartOfSpeechMatcher;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.analysis.AbstractTokenFilterFactory;
+import org.opensearch.index.analysis.Analysis;
+
+/**
+ * Factory of the chain japanese_baseform, japanese_part_of_speech, japanese_stemmer, japanese_number and japanese_stop,
+ * taking the settings of these factories. The per-token stages run in a {@link JapaneseFusedFilter}.
+ * The number filter merges tokens, so if it is enabled, it and the stop filter follow the fused filter.
+ * The stop filter also stays separate if trailing stop words are kept, as it has to look ahead.
+ */
+public class JapaneseFusedFilterFactory extends AbstractTokenFilterFactory {
+    private static final Map<String, Set<?>> NAMED_STOP_WORDS = singletonMap("_japanese_", JapaneseAnalyzer.getDefaultStopSet());
+
+    private final PartOfSpeechMatcher stopTags;
+
+    private final int minimumLength;
+
+    private final boolean number;
+
+    private final CharArraySet stopWords;
+
+    private final boolean removeTrailing;
+
+    public JapaneseFusedFilterFactory(IndexSettings indexSettings, Environment env, String name, Settings settings) {
+        super(indexSettings, name, settings);
+        List<String> tagList = Analysis.parseWordList(env, settings, "stoptags", s -> s);
+        stopTags = new PartOfSpeechMatcher(tagList != null ? tagList : JapaneseAnalyzer.getDefaultStopTags(),
+                settings.getAsBoolean("match_subtypes", false));
+        minimumLength = settings.getAsInt("minimum_length", JapaneseKatakanaStemFilter.DEFAULT_MINIMUM_LENGTH);
+        if (minimumLength < 1) {
+            throw new IllegalArgumentException("minimumLength must be >=1");
+        }
+        number = settings.getAsBoolean("number", true);
+        removeTrailing = settings.getAsBoolean("remove_trailing", true);
+        stopWords = Analysis.parseWords(env, settings, "stopwords", JapaneseAnalyzer.getDefaultStopSet(), NAMED_STOP_WORDS,
+                settings.getAsBoolean("ignore_case", false));
+    }
+
+    @Override
+    public TokenStream create(TokenStream tokenStream) {
+        if (!number && removeTrailing) {
+            return new JapaneseFusedFilter(tokenStream, stopTags, minimumLength, stopWords);
+        }
+        TokenStream stream = new JapaneseFusedFilter(tokenStream, stopTags, minimumLength, null);
+        if (number) {
+            stream = new JapaneseNumberFilter(stream);
+        }
+        return removeTrailing ? new StopFilter(stream, stopWords) : new SuggestStopFilter(stream, stopWords);
+    }
+}
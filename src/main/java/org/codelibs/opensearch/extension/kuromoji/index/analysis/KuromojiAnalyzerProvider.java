@@ -38,6 +38,7 @@ import org.apache.lucene.analysis.CharArraySet;
 import org.apache.lucene.analysis.ja.JapaneseAnalyzer;
 import org.apache.lucene.analysis.ja.JapaneseTokenizer;
 import org.apache.lucene.analysis.ja.dict.UserDictionary;
+import org.codelibs.opensearch.extension.analysis.RefCountedCache;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.env.Environment;
 import org.opensearch.index.IndexSettings;
@@ -52,8 +53,11 @@ public class KuromojiAnalyzerProvider extends AbstractIndexAnalyzerProvider<Japa
         super(indexSettings, name, settings);
         final Set<?> stopWords = Analysis.parseStopWords(env, settings, JapaneseAnalyzer.getDefaultStopSet());
         final JapaneseTokenizer.Mode mode = KuromojiTokenizerFactory.getMode(settings);
-        final UserDictionary userDictionary = KuromojiTokenizerFactory.getUserDictionary(env, settings);
+        final RefCountedCache.Lease<String> lease = UserDictionaryCache.getInstance().newLease(this);
+        final UserDictionary userDictionary = KuromojiTokenizerFactory.loadUserDictionary(env, settings, lease);
         analyzer = new JapaneseAnalyzer(userDictionary, mode, CharArraySet.copy(stopWords), JapaneseAnalyzer.getDefaultStopTags());
+        // the provider is dropped once the analyzer is built, so the analyzer keeps the dictionary in the cache
+        lease.moveTo(analyzer);
     }
 
     @Override
@@ -11,6 +11,7 @@ package org.codelibs.opensearch.extension.kuromoji.index.analysis;
 import org.apache.lucene.analysis.ja.JapaneseCompletionAnalyzer;
 import org.apache.lucene.analysis.ja.JapaneseCompletionFilter;
 import org.apache.lucene.analysis.ja.dict.UserDictionary;
+import org.codelibs.opensearch.extension.analysis.RefCountedCache;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.env.Environment;
 import org.opensearch.index.IndexSettings;
@@ -23,8 +24,11 @@ public class KuromojiCompletionAnalyzerProvider extends AbstractIndexAnalyzerPro
     public KuromojiCompletionAnalyzerProvider(IndexSettings indexSettings, Environment env, String name, Settings settings) {
         super(indexSettings, name, settings);
         final JapaneseCompletionFilter.Mode mode = KuromojiCompletionFilterFactory.getMode(settings);
-        final UserDictionary userDictionary = KuromojiTokenizerFactory.getUserDictionary(env, settings);
+        final RefCountedCache.Lease<String> lease = UserDictionaryCache.getInstance().newLease(this);
+        final UserDictionary userDictionary = KuromojiTokenizerFactory.loadUserDictionary(env, settings, lease);
         analyzer = new JapaneseCompletionAnalyzer(userDictionary, mode);
+        // the provider is dropped once the analyzer is built, so the analyzer keeps the dictionary in the cache
+        lease.moveTo(analyzer);
     }
 
     @Override
@@ -32,13 +32,14 @@
 
 package org.codelibs.opensearch.extension.kuromoji.index.analysis;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
+import org.apache.lucene.analysis.FilteringTokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.ja.JapaneseAnalyzer;
 import org.apache.lucene.analysis.ja.JapanesePartOfSpeechStopFilter;
+import org.apache.lucene.analysis.ja.tokenattributes.PartOfSpeechAttribute;
+import org.codelibs.opensearch.extension.analysis.PartOfSpeechMatcher;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.env.Environment;
 import org.opensearch.index.IndexSettings;
@@ -47,21 +48,40 @@ import org.opensearch.index.analysis.Analysis;
 
 public class KuromojiPartOfSpeechFilterFactory extends AbstractTokenFilterFactory {
 
-    private final Set<String> stopTags = new HashSet<>();
+    private final PartOfSpeechMatcher stopTags;
 
     public KuromojiPartOfSpeechFilterFactory(IndexSettings indexSettings, Environment env, String name, Settings settings) {
         super(indexSettings, name, settings);
         List<String> wordList = Analysis.parseWordList(env, settings, "stoptags", s -> s);
-        if (wordList != null) {
-            stopTags.addAll(wordList);
-        } else {
-            stopTags.addAll(JapaneseAnalyzer.getDefaultStopTags());
-        }
+        stopTags = new PartOfSpeechMatcher(wordList != null ? wordList : JapaneseAnalyzer.getDefaultStopTags(),
+                settings.getAsBoolean("match_subtypes", false));
     }
 
     @Override
     public TokenStream create(TokenStream tokenStream) {
-        return new JapanesePartOfSpeechStopFilter(tokenStream, stopTags);
+        if (!stopTags.isMatchSubtypes()) {
+            return new JapanesePartOfSpeechStopFilter(tokenStream, stopTags.getTags());
+        }
+        return new SubtypeStopFilter(tokenStream, stopTags);
+    }
+
+    /**
+     * Removes the tokens whose part-of-speech is one of the tags or a subtype of it.
+     */
+    private static final class SubtypeStopFilter extends FilteringTokenFilter {
+        private final PartOfSpeechAttribute posAtt = addAttribute(PartOfSpeechAttribute.class);
+
+        private final PartOfSpeechMatcher stopTags;
+
+        SubtypeStopFilter(TokenStream input, PartOfSpeechMatcher stopTags) {
+            super(input);
+            this.stopTags = stopTags;
+        }
+
+        @Override
+        protected boolean accept() {
+            return !stopTags.matches(posAtt.getPartOfSpeech());
+        }
     }
 
 }
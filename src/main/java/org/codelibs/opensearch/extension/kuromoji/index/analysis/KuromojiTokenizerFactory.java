@@ -40,11 +40,14 @@ import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.ja.JapaneseTokenizer;
 import org.apache.lucene.analysis.ja.JapaneseTokenizer.Mode;
 import org.apache.lucene.analysis.ja.dict.UserDictionary;
 import org.apache.lucene.analysis.util.CSVUtil;
+import org.apache.lucene.util.AttributeFactory;
+import org.codelibs.opensearch.extension.analysis.RefCountedCache;
 import org.opensearch.OpenSearchException;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.env.Environment;
@@ -60,7 +63,11 @@ public class KuromojiTokenizerFactory extends AbstractTokenizerFactory {
     private static final String NBEST_COST = "nbest_cost";
     private static final String NBEST_EXAMPLES = "nbest_examples";
     private static final String DISCARD_COMPOUND_TOKEN = "discard_compound_token";
+    private static final String PARALLEL_THRESHOLD = "parallel_threshold";
+    private static final String PARALLEL_SEGMENT_SIZE = "parallel_segment_size";
+    private static final String MAX_LATTICE_SPAN = "max_lattice_span";
 
+    private final RefCountedCache.Lease<String> userDictionaryLease;
     private final UserDictionary userDictionary;
     private final Mode mode;
     private final String nBestExamples;
@@ -69,14 +76,48 @@ public class KuromojiTokenizerFactory extends AbstractTokenizerFactory {
     private boolean discardPunctuation;
     private boolean discardCompoundToken;
 
+    private volatile NBestCost cachedNBestCost;
+
+    private final int parallelThreshold;
+    private final int parallelSegmentSize;
+    private final int maxLatticeSpan;
+
     public KuromojiTokenizerFactory(IndexSettings indexSettings, Environment env, String name, Settings settings) {
         super(indexSettings, settings, name);
         mode = getMode(settings);
-        userDictionary = getUserDictionary(env, settings);
+        userDictionaryLease = UserDictionaryCache.getInstance().newLease(this);
+        userDictionary = loadUserDictionary(env, settings, userDictionaryLease);
         discardPunctuation = settings.getAsBoolean("discard_punctuation", true);
         nBestCost = settings.getAsInt(NBEST_COST, -1);
         nBestExamples = settings.get(NBEST_EXAMPLES);
         discardCompoundToken = settings.getAsBoolean(DISCARD_COMPOUND_TOKEN, false);
+        parallelThreshold = settings.getAsInt(PARALLEL_THRESHOLD, 0);
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException(PARALLEL_THRESHOLD + " must be non-negative: " + parallelThreshold);
+        }
+        parallelSegmentSize = settings.getAsInt(PARALLEL_SEGMENT_SIZE, 65536);
+        if (parallelSegmentSize <= 0) {
+            throw new IllegalArgumentException(PARALLEL_SEGMENT_SIZE + " must be positive: " + parallelSegmentSize);
+        }
+        maxLatticeSpan = settings.getAsInt(MAX_LATTICE_SPAN, 0);
+        if (maxLatticeSpan != 0 && maxLatticeSpan < 2) {
+            throw new IllegalArgumentException(MAX_LATTICE_SPAN + " must be 0 or at least 2: " + maxLatticeSpan);
+        }
+        if (parallelThreshold > 0 && maxLatticeSpan > 0) {
+            throw new IllegalArgumentException(PARALLEL_THRESHOLD + " cannot be combined with " + MAX_LATTICE_SPAN);
+        }
+    }
+
+    /**
+     * Rejects the options that only apply to the tokenizers created by this factory.
+     */
+    protected static Settings checkUnsupportedOptions(String type, Settings settings) {
+        for (String option : new String[] { PARALLEL_THRESHOLD, MAX_LATTICE_SPAN }) {
+            if (settings.get(option) != null) {
+                throw new IllegalArgumentException(option + " is not supported by " + type);
+            }
+        }
+        return settings;
     }
 
     private static String parse(String rule, Set<String> dup) {
@@ -91,35 +132,54 @@ public class KuromojiTokenizerFactory extends AbstractTokenizerFactory {
     }
 
     public static UserDictionary getUserDictionary(Environment env, Settings settings) {
-        if (settings.get(USER_DICT_PATH_OPTION) != null && settings.get(USER_DICT_RULES_OPTION) != null) {
-            throw new IllegalArgumentException(
-                "It is not allowed to use [" + USER_DICT_PATH_OPTION + "] in conjunction" + " with [" + USER_DICT_RULES_OPTION + "]"
-            );
+        final String rules = getUserDictionaryRules(env, settings);
+        if (rules == null) {
+            return null;
         }
         try {
-            Set<String> dup = new HashSet<>();
-            List<String> ruleList = Analysis.parseWordList(
-                env,
-                settings,
-                USER_DICT_PATH_OPTION,
-                USER_DICT_RULES_OPTION,
-                s -> parse(s, dup)
-            );
-            if (ruleList == null || ruleList.isEmpty()) {
-                return null;
-            }
+            return UserDictionary.open(new StringReader(rules));
+        } catch (IOException e) {
+            LOGGER.error("Failed to load kuromoji user dictionary", e);
+            throw new OpenSearchException("Failed to load kuromoji user dictionary");
+        }
+    }
 
-            StringBuilder sb = new StringBuilder();
-            for (String line : ruleList) {
-                sb.append(line).append(System.lineSeparator());
-            }
-            return UserDictionary.open(new StringReader(sb.toString()));
+    /**
+     * Returns the user dictionary shared through {@link UserDictionaryCache} and moves the lease to it.
+     */
+    static UserDictionary loadUserDictionary(Environment env, Settings settings, RefCountedCache.Lease<String> lease) {
+        final String rules = getUserDictionaryRules(env, settings);
+        if (rules == null) {
+            lease.release();
+            return null;
+        }
+        try {
+            return UserDictionaryCache.getInstance().acquire(lease, rules);
         } catch (IOException e) {
             LOGGER.error("Failed to load kuromoji user dictionary", e);
             throw new OpenSearchException("Failed to load kuromoji user dictionary");
         }
     }
 
+    static String getUserDictionaryRules(Environment env, Settings settings) {
+        if (settings.get(USER_DICT_PATH_OPTION) != null && settings.get(USER_DICT_RULES_OPTION) != null) {
+            throw new IllegalArgumentException(
+                "It is not allowed to use [" + USER_DICT_PATH_OPTION + "] in conjunction" + " with [" + USER_DICT_RULES_OPTION + "]"
+            );
+        }
+        Set<String> dup = new HashSet<>();
+        List<String> ruleList = Analysis.parseWordList(env, settings, USER_DICT_PATH_OPTION, USER_DICT_RULES_OPTION, s -> parse(s, dup));
+        if (ruleList == null || ruleList.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String line : ruleList) {
+            sb.append(line).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
     public static JapaneseTokenizer.Mode getMode(Settings settings) {
         JapaneseTokenizer.Mode mode = JapaneseTokenizer.DEFAULT_MODE;
         String modeSetting = settings.get("mode", null);
@@ -135,15 +195,55 @@ public class KuromojiTokenizerFactory extends AbstractTokenizerFactory {
         return mode;
     }
 
+    protected UserDictionary getUserDictionary() {
+        return userDictionary;
+    }
+
+    protected RefCountedCache.Lease<String> getUserDictionaryLease() {
+        return userDictionaryLease;
+    }
+
     @Override
     public Tokenizer create() {
-        JapaneseTokenizer t = new JapaneseTokenizer(userDictionary, discardPunctuation, discardCompoundToken, mode);
-        int nBestCost = this.nBestCost;
-        if (nBestExamples != null) {
-            nBestCost = Math.max(nBestCost, t.calcNBestCost(nBestExamples));
+        if (parallelThreshold > 0) {
+            return new ParallelKuromojiTokenizer(this, userDictionary, parallelThreshold, parallelSegmentSize);
+        }
+        if (maxLatticeSpan > 0) {
+            return new StreamingKuromojiTokenizer(this, userDictionary, maxLatticeSpan);
         }
-        t.setNBestCost(nBestCost);
+        return create(TokenStream.DEFAULT_TOKEN_ATTRIBUTE_FACTORY, userDictionary);
+    }
+
+    protected JapaneseTokenizer create(AttributeFactory factory, UserDictionary userDictionary) {
+        JapaneseTokenizer t = new JapaneseTokenizer(factory, userDictionary, discardPunctuation, discardCompoundToken, mode);
+        t.setNBestCost(getNBestCost(t, userDictionary));
         return t;
     }
 
+    /**
+     * Returns the nBest cost for the dictionary, running the examples only once per dictionary.
+     */
+    private int getNBestCost(JapaneseTokenizer t, UserDictionary userDictionary) {
+        if (nBestExamples == null) {
+            return nBestCost;
+        }
+        final NBestCost cached = cachedNBestCost;
+        if (cached != null && cached.userDictionary == userDictionary) {
+            return cached.cost;
+        }
+        final int cost = Math.max(nBestCost, t.calcNBestCost(nBestExamples));
+        cachedNBestCost = new NBestCost(userDictionary, cost);
+        return cost;
+    }
+
+    private static final class NBestCost {
+        private final UserDictionary userDictionary;
+        private final int cost;
+
+        NBestCost(UserDictionary userDictionary, int cost) {
+            this.userDictionary = userDictionary;
+            this.cost = cost;
+        }
+    }
+
 }
@@ -0,0 +1,242 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ja.JapaneseTokenizer;
+import org.apache.lucene.analysis.ja.dict.UserDictionary;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Attribute;
+import org.codelibs.opensearch.extension.analysis.SharedAttributeFactory;
+
+/**
+ * Tokenizer which splits a large input after sentence ends and newlines, and tokenizes the segments in parallel.
+ * Tokens of each segment are captured by a {@link JapaneseTokenizer} on a fork-join pool and emitted in order,
+ * with offsets shifted to the whole input. At most as many segments as the pool parallelism are in flight.
+ * Inputs shorter than the threshold are tokenized on the calling thread.
+ */
+final class ParallelKuromojiTokenizer extends Tokenizer {
+
+    private final KuromojiTokenizerFactory factory;
+
+    private final UserDictionary userDictionary;
+
+    private final int threshold;
+
+    private final int segmentSize;
+
+    private final JapaneseTokenizer tokenizer;
+
+    private final OffsetAttribute offsetAtt;
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private char[] buffer = new char[1024];
+
+    private int length;
+
+    private boolean parallel;
+
+    private int nextSegmentStart;
+
+    private Segment segment;
+
+    private Iterator<State> states;
+
+    ParallelKuromojiTokenizer(KuromojiTokenizerFactory factory, UserDictionary userDictionary, int threshold, int segmentSize) {
+        this.factory = factory;
+        this.userDictionary = userDictionary;
+        this.threshold = threshold;
+        this.segmentSize = segmentSize;
+        // shares the attribute instances, so the captured states of the segment tokenizers can be restored
+        this.tokenizer = factory.create(new SharedAttributeFactory(this), userDictionary);
+        this.offsetAtt = addAttribute(OffsetAttribute.class);
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        if (!parallel) {
+            if (!tokenizer.incrementToken()) {
+                return false;
+            }
+            offsetAtt.setOffset(correctOffset(offsetAtt.startOffset()), correctOffset(offsetAtt.endOffset()));
+            return true;
+        }
+        while (states == null || !states.hasNext()) {
+            if (!nextSegment()) {
+                return false;
+            }
+        }
+        clearAttributes();
+        restoreState(states.next());
+        final int base = segment.start;
+        offsetAtt.setOffset(correctOffset(base + offsetAtt.startOffset()), correctOffset(base + offsetAtt.endOffset()));
+        return true;
+    }
+
+    private boolean nextSegment() throws IOException {
+        segment = segments.poll();
+        if (segment == null) {
+            states = null;
+            return false;
+        }
+        submitSegments();
+        try {
+            states = segment.task.join().iterator();
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return true;
+    }
+
+    private void submitSegments() {
+        final ForkJoinPool pool = PoolHolder.POOL;
+        while (nextSegmentStart < length && segments.size() < pool.getParallelism()) {
+            final int start = nextSegmentStart;
+            final int end = findSegmentEnd(buffer, start, length, segmentSize);
+            final char[] chars = buffer;
+            segments.add(new Segment(start, pool.submit(ForkJoinTask.adapt(() -> tokenize(chars, start, end - start)))));
+            nextSegmentStart = end;
+        }
+    }
+
+    private List<State> tokenize(final char[] chars, final int offset, final int len) {
+        final List<State> tokens = new ArrayList<>();
+        try (JapaneseTokenizer t = factory.create(TokenStream.DEFAULT_TOKEN_ATTRIBUTE_FACTORY, userDictionary)) {
+            t.setReader(new CharArrayReader(chars, offset, len));
+            t.reset();
+            while (t.incrementToken()) {
+                tokens.add(t.captureState());
+            }
+            t.end();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the end of the segment which starts at the offset: after the last sentence end or newline
+     * within the segment size, or after the first one beyond it if there is none.
+     */
+    static int findSegmentEnd(final char[] chars, final int start, final int length, final int segmentSize) {
+        final int limit = start + segmentSize;
+        if (limit >= length) {
+            return length;
+        }
+        for (int i = limit - 1; i > start; i--) {
+            if (isBoundary(chars[i])) {
+                return i + 1;
+            }
+        }
+        for (int i = limit; i < length; i++) {
+            if (isBoundary(chars[i])) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isBoundary(final char c) {
+        return c == '\n' || c == '。' || c == '．' || c == '！' || c == '？';
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        length = 0;
+        int read;
+        while ((read = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = ArrayUtil.grow(buffer, length + 1);
+            }
+        }
+        parallel = length >= threshold;
+        nextSegmentStart = 0;
+        segment = null;
+        states = null;
+        if (parallel) {
+            submitSegments();
+        } else {
+            // attributes added by the following filters are cleared by the delegate
+            final Iterator<Class<? extends Attribute>> classes = getAttributeClassesIterator();
+            while (classes.hasNext()) {
+                tokenizer.addAttribute(classes.next());
+            }
+            tokenizer.setReader(new CharArrayReader(buffer, 0, length));
+            tokenizer.reset();
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        if (!parallel) {
+            tokenizer.end();
+        }
+        final int finalOffset = correctOffset(length);
+        offsetAtt.setOffset(finalOffset, finalOffset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!parallel) {
+            tokenizer.close();
+        }
+        // the buffer is reused by the next input, so running segments have to finish
+        Segment pending;
+        while ((pending = segments.poll()) != null) {
+            if (!pending.task.cancel(false)) {
+                pending.task.quietlyJoin();
+            }
+        }
+        segment = null;
+        states = null;
+        if (buffer.length > threshold) {
+            buffer = new char[1024];
+        }
+        super.close();
+    }
+
+    static int getParallelism() {
+        return PoolHolder.POOL.getParallelism();
+    }
+
+    private static final class Segment {
+        private final int start;
+        private final ForkJoinTask<List<State>> task;
+
+        Segment(int start, ForkJoinTask<List<State>> task) {
+            this.start = start;
+            this.task = task;
+        }
+    }
+
+    private static final class PoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("analysis-extension-kuromoji-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
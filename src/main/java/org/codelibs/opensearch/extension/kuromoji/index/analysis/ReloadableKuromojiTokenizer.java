@@ -0,0 +1,80 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ja.JapaneseTokenizer;
+import org.apache.lucene.analysis.ja.dict.UserDictionary;
+import org.apache.lucene.util.Attribute;
+import org.apache.lucene.util.AttributeFactory;
+import org.codelibs.opensearch.extension.analysis.SharedAttributeFactory;
+
+/**
+ * Tokenizer which delegates to a {@link JapaneseTokenizer} and replaces it at {@link #reset()}
+ * when the user dictionary of the factory has been reloaded.
+ * The delegate is created with the attribute instances of this tokenizer, so tokens are not copied.
+ */
+public final class ReloadableKuromojiTokenizer extends Tokenizer {
+
+    private final ReloadableKuromojiTokenizerFactory factory;
+
+    private final AttributeFactory sharedAttributeFactory;
+
+    private UserDictionary userDictionary;
+
+    private JapaneseTokenizer tokenizer;
+
+    public ReloadableKuromojiTokenizer(ReloadableKuromojiTokenizerFactory factory) {
+        this.factory = factory;
+        this.sharedAttributeFactory = new SharedAttributeFactory(this);
+        this.userDictionary = factory.getUserDictionary();
+        this.tokenizer = factory.create(sharedAttributeFactory, userDictionary);
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        return tokenizer.incrementToken();
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        final UserDictionary current = factory.getUserDictionary();
+        if (current != userDictionary) {
+            userDictionary = current;
+            tokenizer = factory.create(sharedAttributeFactory, current);
+        }
+        // attributes added by the following filters are cleared by the delegate
+        final Iterator<Class<? extends Attribute>> classes = getAttributeClassesIterator();
+        while (classes.hasNext()) {
+            tokenizer.addAttribute(classes.next());
+        }
+        tokenizer.setReader(input);
+        tokenizer.reset();
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        tokenizer.end();
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokenizer.close();
+        super.close();
+    }
+
+    UserDictionary getCurrentUserDictionary() {
+        return userDictionary;
+    }
+}
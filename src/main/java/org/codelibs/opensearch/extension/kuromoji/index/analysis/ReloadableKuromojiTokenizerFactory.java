@@ -0,0 +1,77 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import java.nio.file.Path;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ja.dict.UserDictionary;
+import org.codelibs.opensearch.extension.analysis.DictionaryWatcher;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+
+/**
+ * Kuromoji tokenizer factory which rebuilds the user dictionary in the background when the file is changed.
+ * Tokenizers pick up the new dictionary at the next {@link Tokenizer#reset()}.
+ */
+public class ReloadableKuromojiTokenizerFactory extends KuromojiTokenizerFactory {
+
+    private static final Logger LOGGER = LogManager.getLogger(ReloadableKuromojiTokenizerFactory.class);
+
+    private final Environment env;
+
+    private final Settings settings;
+
+    private final DictionaryWatcher.Subscription subscription;
+
+    private volatile UserDictionary userDictionary;
+
+    public ReloadableKuromojiTokenizerFactory(IndexSettings indexSettings, Environment env, String name, Settings settings) {
+        super(indexSettings, env, name, checkUnsupportedOptions("reloadable_kuromoji", settings));
+        this.env = env;
+        this.settings = settings;
+        userDictionary = super.getUserDictionary();
+        final String path = settings.get("user_dictionary");
+        if (path != null) {
+            final Path file = env.configDir().resolve(path);
+            final long reloadInterval = settings.getAsTime("reload_interval", TimeValue.timeValueMinutes(1)).getMillis();
+            subscription = DictionaryWatcher.getInstance().subscribe(file, reloadInterval, this, ReloadableKuromojiTokenizerFactory::reload);
+        } else {
+            subscription = null;
+        }
+    }
+
+    void reload() {
+        try {
+            userDictionary = loadUserDictionary(env, settings, getUserDictionaryLease());
+            LOGGER.info("Reloaded kuromoji user dictionary: {}", settings.get("user_dictionary"));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to reload kuromoji user dictionary: {}", settings.get("user_dictionary"), e);
+        }
+    }
+
+    boolean isReloadable() {
+        return subscription != null;
+    }
+
+    @Override
+    protected UserDictionary getUserDictionary() {
+        return userDictionary;
+    }
+
+    @Override
+    public Tokenizer create() {
+        return new ReloadableKuromojiTokenizer(this);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ja.JapaneseTokenizer;
+import org.apache.lucene.analysis.ja.dict.UserDictionary;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.util.Attribute;
+import org.codelibs.opensearch.extension.analysis.SharedAttributeFactory;
+
+/**
+ * Tokenizer which feeds the input to a {@link JapaneseTokenizer} in chunks of at most the maximum span,
+ * so that the lattice is flushed at the end of each chunk even if the input has no punctuation.
+ * Chunks are cut after a sentence end, whitespace or a change of the character type where possible.
+ * Memory is bounded by the span whatever the length of the input, and tokens are emitted chunk by chunk.
+ */
+final class StreamingKuromojiTokenizer extends Tokenizer {
+
+    private final JapaneseTokenizer tokenizer;
+
+    private final OffsetAttribute offsetAtt;
+
+    private final char[] buffer;
+
+    private int length;
+
+    private int chunkLength;
+
+    private int chunkStart;
+
+    private boolean endOfInput;
+
+    StreamingKuromojiTokenizer(KuromojiTokenizerFactory factory, UserDictionary userDictionary, int maxSpan) {
+        this.tokenizer = factory.create(new SharedAttributeFactory(this), userDictionary);
+        this.offsetAtt = addAttribute(OffsetAttribute.class);
+        this.buffer = new char[maxSpan];
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        while (!tokenizer.incrementToken()) {
+            if (!nextChunk()) {
+                return false;
+            }
+        }
+        offsetAtt.setOffset(correctOffset(chunkStart + offsetAtt.startOffset()), correctOffset(chunkStart + offsetAtt.endOffset()));
+        return true;
+    }
+
+    private boolean nextChunk() throws IOException {
+        tokenizer.end();
+        tokenizer.close();
+        chunkStart += chunkLength;
+        // keeps the rest of the previous chunk
+        System.arraycopy(buffer, chunkLength, buffer, 0, length - chunkLength);
+        length -= chunkLength;
+        fill();
+        if (length == 0) {
+            chunkLength = 0;
+            return false;
+        }
+        chunkLength = endOfInput ? length : findChunkEnd(buffer, length);
+        tokenizer.setReader(new CharArrayReader(buffer, 0, chunkLength));
+        tokenizer.reset();
+        return true;
+    }
+
+    private void fill() throws IOException {
+        while (!endOfInput && length < buffer.length) {
+            final int read = input.read(buffer, length, buffer.length - length);
+            if (read == -1) {
+                endOfInput = true;
+            } else {
+                length += read;
+            }
+        }
+    }
+
+    /**
+     * Returns the end of the chunk in the full buffer: after the last sentence end or whitespace,
+     * else at the last change of the character type, else the whole buffer without splitting a surrogate pair.
+     */
+    static int findChunkEnd(final char[] chars, final int length) {
+        final int min = length / 2;
+        for (int i = length - 1; i >= min; i--) {
+            if (isBoundary(chars[i])) {
+                return i + 1;
+            }
+        }
+        for (int i = length - 1; i > min; i--) {
+            if (!Character.isSurrogate(chars[i]) && getCharType(chars[i - 1]) != getCharType(chars[i])) {
+                return i;
+            }
+        }
+        return Character.isHighSurrogate(chars[length - 1]) ? length - 1 : length;
+    }
+
+    private static boolean isBoundary(final char c) {
+        return c == '。' || c == '、' || c == '．' || c == '，' || c == '！' || c == '？' || Character.isWhitespace(c);
+    }
+
+    private static int getCharType(final char c) {
+        if (c >= '぀' && c <= 'ゟ') {
+            return 1; // hiragana
+        }
+        if (c >= '゠' && c <= 'ヿ') {
+            return 2; // katakana
+        }
+        if (Character.isIdeographic(c)) {
+            return 3;
+        }
+        if (Character.isLetterOrDigit(c)) {
+            return 4;
+        }
+        return 0;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        // attributes added by the following filters are cleared by the delegate
+        final Iterator<Class<? extends Attribute>> classes = getAttributeClassesIterator();
+        while (classes.hasNext()) {
+            tokenizer.addAttribute(classes.next());
+        }
+        length = 0;
+        chunkLength = 0;
+        chunkStart = 0;
+        endOfInput = false;
+        // an empty chunk, so that the first call of incrementToken reads the input
+        tokenizer.setReader(new CharArrayReader(buffer, 0, 0));
+        tokenizer.reset();
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        final int finalOffset = correctOffset(chunkStart + chunkLength);
+        offsetAtt.setOffset(finalOffset, finalOffset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokenizer.close();
+        super.close();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.apache.lucene.analysis.ja.dict.UserDictionary;
+import org.codelibs.opensearch.extension.analysis.Digests;
+import org.codelibs.opensearch.extension.analysis.RefCountedCache;
+
+/**
+ * Node-level cache of {@link UserDictionary}s keyed by the hash of their rules, so that tokenizers
+ * and analyzers of all indices which use the same user dictionary share one FST.
+ */
+public final class UserDictionaryCache extends RefCountedCache<String, UserDictionary> {
+
+    private static final UserDictionaryCache INSTANCE = new UserDictionaryCache();
+
+    UserDictionaryCache() {
+        // nothing
+    }
+
+    public static UserDictionaryCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the dictionary for the rules, building it if needed, and moves the lease to it.
+     */
+    public UserDictionary acquire(final Lease<String> lease, final String rules) throws IOException {
+        return acquire(lease, Digests.sha256Hex(rules), () -> UserDictionary.open(new StringReader(rules)));
+    }
+}
@@ -0,0 +1,41 @@
+package org.codelibs.opensearch.extension.rest;
+
+import static org.opensearch.rest.RestRequest.Method.GET;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.codelibs.opensearch.extension.action.AnalysisExtensionStatsAction;
+import org.codelibs.opensearch.extension.action.AnalysisExtensionStatsRequest;
+import org.opensearch.core.common.Strings;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestActions.NodesResponseRestListener;
+import org.opensearch.transport.client.node.NodeClient;
+
+/**
+ * Returns the analysis component stats of the nodes, all of them by default or those given by {@code node_id}.
+ */
+public class RestAnalysisExtensionStatsAction extends BaseRestHandler {
+
+    @Override
+    public String getName() {
+        return "analysis_extension_stats_action";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return List.of(new Route(GET, "/_analysis_extension/stats"), new Route(GET, "/_analysis_extension/stats/{index}"),
+                new Route(GET, "/_nodes/{node_id}/_analysis_extension/stats"),
+                new Route(GET, "/_nodes/{node_id}/_analysis_extension/stats/{index}"));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) throws IOException {
+        final String[] nodesIds = Strings.splitStringByCommaToArray(request.param("node_id"));
+        final AnalysisExtensionStatsRequest statsRequest =
+                new AnalysisExtensionStatsRequest(nodesIds).indices(Strings.splitStringByCommaToArray(request.param("index")));
+        statsRequest.timeout(request.param("timeout"));
+        return channel -> client.execute(AnalysisExtensionStatsAction.INSTANCE, statsRequest, new NodesResponseRestListener<>(channel));
+    }
+}
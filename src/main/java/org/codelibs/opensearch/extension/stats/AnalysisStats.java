@@ -0,0 +1,179 @@
+package org.codelibs.opensearch.extension.stats;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.opensearch.common.CheckedRunnable;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Setting.Property;
+import org.opensearch.core.index.Index;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+/**
+ * Node-level registry of the {@link ComponentStats} of the analysis components of this plugin, by index UUID.
+ * Components are instrumented only for indices with {@link #STATS_ENABLED}, and reported by index name.
+ */
+public final class AnalysisStats {
+
+    public static final Setting<Boolean> STATS_ENABLED = Setting.boolSetting("index.analysis_extension.stats.enabled", false,
+            Property.IndexScope);
+
+    public static final String TOKENIZER = "tokenizer";
+
+    public static final String TOKEN_FILTER = "token_filter";
+
+    public static final String CHAR_FILTER = "char_filter";
+
+    private static final AnalysisStats INSTANCE = new AnalysisStats();
+
+    private static final ThreadLocal<Boolean> SUSPENDED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    // index UUID -> stats of the indices created on this node
+    private final Map<String, IndexStats> indices = new ConcurrentHashMap<>();
+
+    // index UUID -> stats of the index services not created yet, which are also built
+    // to validate indices, templates and mappings and are then discarded without any callback
+    private final Map<String, WeakReference<IndexStats>> pending = new HashMap<>();
+
+    AnalysisStats() {
+        // nothing
+    }
+
+    /**
+     * Runs the task without counting the streams it analyzes on this thread, e.g. a warm-up.
+     */
+    public static <E extends Exception> void runSuspended(final CheckedRunnable<E> task) throws E {
+        final Boolean suspended = SUSPENDED.get();
+        SUSPENDED.set(Boolean.TRUE);
+        try {
+            task.run();
+        } finally {
+            SUSPENDED.set(suspended);
+        }
+    }
+
+    static boolean isSuspended() {
+        return SUSPENDED.get();
+    }
+
+    public static AnalysisStats getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the stats of the component. They are reported once the index is registered,
+     * and are kept until it is removed or, if it is never registered, until its components are garbage collected.
+     *
+     * @param index the index
+     * @param kind {@link #TOKENIZER}, {@link #TOKEN_FILTER} or {@link #CHAR_FILTER}
+     * @param name the name of the component in the index settings
+     * @param type the registered type of the component
+     */
+    public ComponentStats getComponentStats(final Index index, final String kind, final String name, final String type) {
+        return getIndexStats(index).getComponentStats(kind, name, type);
+    }
+
+    private IndexStats getIndexStats(final Index index) {
+        final IndexStats registered = indices.get(index.getUUID());
+        if (registered != null) {
+            return registered;
+        }
+        synchronized (pending) {
+            pending.values().removeIf(ref -> ref.get() == null);
+            final WeakReference<IndexStats> ref = pending.get(index.getUUID());
+            IndexStats stats = ref != null ? ref.get() : null;
+            if (stats == null) {
+                stats = new IndexStats(index.getName());
+                pending.put(index.getUUID(), new WeakReference<>(stats));
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Reports the stats of the index, which has been created on this node.
+     */
+    public void registerIndex(final Index index) {
+        synchronized (pending) {
+            final WeakReference<IndexStats> ref = pending.remove(index.getUUID());
+            final IndexStats stats = ref != null ? ref.get() : null;
+            if (stats != null) {
+                indices.put(index.getUUID(), stats);
+            }
+        }
+    }
+
+    public void removeIndex(final Index index) {
+        indices.remove(index.getUUID());
+        synchronized (pending) {
+            pending.remove(index.getUUID());
+        }
+    }
+
+    int getPendingCount() {
+        synchronized (pending) {
+            pending.values().removeIf(ref -> ref.get() == null);
+            return pending.size();
+        }
+    }
+
+    /**
+     * Returns the stats of the given indices, or of all indices if none is given, sorted by name.
+     * The map contains only maps, strings and numbers, so it can be sent to another node as a generic value.
+     */
+    public Map<String, Object> toMap(final String... names) {
+        final Set<String> nameSet = new HashSet<>(Arrays.asList(names));
+        final Map<String, Map<String, Map<String, ComponentStats>>> selected = new TreeMap<>();
+        for (final IndexStats stats : indices.values()) {
+            if (nameSet.isEmpty() || nameSet.contains(stats.name)) {
+                selected.put(stats.name, stats.components);
+            }
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        for (final Map.Entry<String, Map<String, Map<String, ComponentStats>>> index : selected.entrySet()) {
+            final Map<String, Object> kinds = new LinkedHashMap<>();
+            for (final Map.Entry<String, Map<String, ComponentStats>> kind : new TreeMap<>(index.getValue()).entrySet()) {
+                final Map<String, Object> components = new LinkedHashMap<>();
+                for (final Map.Entry<String, ComponentStats> component : new TreeMap<>(kind.getValue()).entrySet()) {
+                    components.put(component.getKey(), component.getValue().toMap());
+                }
+                kinds.put(kind.getKey(), components);
+            }
+            result.put(index.getKey(), kinds);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the stats of the given indices, or of all indices if none is given, sorted by name.
+     */
+    public XContentBuilder toXContent(final XContentBuilder builder, final String... names) throws IOException {
+        builder.startObject();
+        builder.field("indices", toMap(names));
+        return builder.endObject();
+    }
+
+    private static final class IndexStats {
+        private final String name;
+
+        // kind -> component name -> stats
+        private final Map<String, Map<String, ComponentStats>> components = new ConcurrentHashMap<>();
+
+        IndexStats(final String name) {
+            this.name = name;
+        }
+
+        ComponentStats getComponentStats(final String kind, final String name, final String type) {
+            return components.computeIfAbsent(kind, k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(name, k -> new ComponentStats(type, this));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.codelibs.opensearch.extension.stats;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+/**
+ * Counters of one analysis component of an index, updated by its streams without locking.
+ * The time of a component excludes the time of the instrumented component right before it in the chain.
+ * Only one stream in {@link #TIMING_INTERVAL} is timed, as decided by the first instrumented component of the chain,
+ * so that the other streams do not read the clock for each token.
+ */
+public final class ComponentStats implements ToXContentObject {
+
+    static final int TIMING_INTERVAL = 16;
+
+    private final String type;
+
+    private final AtomicLong sampled = new AtomicLong();
+
+    private final LongAdder streams = new LongAdder();
+
+    private final LongAdder timedStreams = new LongAdder();
+
+    private final LongAdder tokens = new LongAdder();
+
+    private final LongAdder chars = new LongAdder();
+
+    private final LongAdder nanos = new LongAdder();
+
+    private final LongAccumulator maxStreamNanos = new LongAccumulator(Long::max, 0);
+
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    // keeps the stats of the index reachable while its components are
+    private final Object index;
+
+    ComponentStats(final String type, final Object index) {
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * Returns whether the next stream which starts a chain is timed.
+     */
+    boolean sample() {
+        return !AnalysisStats.isSuspended() && sampled.getAndIncrement() % TIMING_INTERVAL == 0;
+    }
+
+    void add(final long tokens, final long chars, final long nanos, final boolean timed) {
+        if (AnalysisStats.isSuspended()) {
+            return;
+        }
+        streams.increment();
+        this.tokens.add(tokens);
+        this.chars.add(chars);
+        if (timed) {
+            timedStreams.increment();
+            this.nanos.add(nanos);
+            maxStreamNanos.accumulate(nanos);
+        }
+    }
+
+    /**
+     * Adds a value read from the owner when the stats are reported, replacing the one of the same name.
+     * The owner is weakly referenced, and the value is no longer reported once it has been garbage collected.
+     */
+    public <T> void setGauge(final String name, final T owner, final ToLongFunction<T> function) {
+        final WeakReference<T> ref = new WeakReference<>(owner);
+        gauges.put(name, () -> {
+            final T value = ref.get();
+            return value != null ? function.applyAsLong(value) : -1;
+        });
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getStreams() {
+        return streams.sum();
+    }
+
+    public long getTimedStreams() {
+        return timedStreams.sum();
+    }
+
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    public long getChars() {
+        return chars.sum();
+    }
+
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    public long getMaxStreamNanos() {
+        return maxStreamNanos.get();
+    }
+
+    /**
+     * Returns the counters and the gauges by name.
+     */
+    public Map<String, Object> toMap() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("type", type);
+        map.put("streams", getStreams());
+        map.put("tokens", getTokens());
+        map.put("chars", getChars());
+        map.put("timed_streams", getTimedStreams());
+        map.put("time_in_nanos", getNanos());
+        map.put("max_stream_time_in_nanos", getMaxStreamNanos());
+        for (final Map.Entry<String, LongSupplier> entry : new TreeMap<>(gauges).entrySet()) {
+            final long value = entry.getValue().getAsLong();
+            if (value >= 0) {
+                map.put(entry.getKey(), value);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+        return builder.map(toMap());
+    }
+}
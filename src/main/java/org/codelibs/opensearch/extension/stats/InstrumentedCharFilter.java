@@ -0,0 +1,82 @@
+package org.codelibs.opensearch.extension.stats;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.lucene.analysis.CharFilter;
+
+/**
+ * Char filter which measures the reader created by a char filter factory.
+ * Offsets are corrected by the wrapped reader.
+ */
+final class InstrumentedCharFilter extends CharFilter implements Timed {
+
+    private final ComponentStats stats;
+
+    private final Timed upstream;
+
+    private final boolean timed;
+
+    private long nanos;
+
+    private long ownNanos;
+
+    private long chars;
+
+    private boolean recorded;
+
+    /**
+     * @param filtered the reader created by the factory
+     * @param source the reader passed to the factory
+     * @param stats the counters to update
+     */
+    InstrumentedCharFilter(final Reader filtered, final Reader source, final ComponentStats stats) {
+        super(filtered);
+        this.stats = stats;
+        upstream = source instanceof Timed ? (Timed) source : null;
+        timed = upstream != null ? upstream.isTimed() : stats.sample();
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        final int read;
+        if (timed) {
+            final long upstreamNanos = upstream == null ? 0 : upstream.getNanos();
+            final long start = System.nanoTime();
+            read = input.read(cbuf, off, len);
+            final long elapsed = System.nanoTime() - start;
+            nanos += elapsed;
+            ownNanos += upstream == null ? elapsed : elapsed - (upstream.getNanos() - upstreamNanos);
+        } else {
+            read = input.read(cbuf, off, len);
+        }
+        if (read > 0) {
+            chars += read;
+        }
+        return read;
+    }
+
+    @Override
+    protected int correct(final int currentOff) {
+        return currentOff;
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (!recorded) {
+            recorded = true;
+            stats.add(0, chars, ownNanos, timed);
+        }
+    }
+
+    @Override
+    public boolean isTimed() {
+        return timed;
+    }
+
+    @Override
+    public long getNanos() {
+        return nanos;
+    }
+}
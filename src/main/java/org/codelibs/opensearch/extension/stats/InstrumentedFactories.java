@@ -0,0 +1,226 @@
+package org.codelibs.opensearch.extension.stats;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.codelibs.opensearch.extension.analysis.NGramSynonymTokenizerFactory;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.analysis.AnalysisMode;
+import org.opensearch.index.analysis.CharFilterFactory;
+import org.opensearch.index.analysis.NormalizingCharFilterFactory;
+import org.opensearch.index.analysis.NormalizingTokenFilterFactory;
+import org.opensearch.index.analysis.TokenFilterFactory;
+import org.opensearch.index.analysis.TokenizerFactory;
+import org.opensearch.indices.analysis.AnalysisModule.AnalysisProvider;
+
+/**
+ * Wraps analysis providers so that the factories of indices with {@link AnalysisStats#STATS_ENABLED}
+ * create instrumented streams. Factories of other indices are returned as they are.
+ */
+public final class InstrumentedFactories {
+
+    private InstrumentedFactories() {
+        // nothing
+    }
+
+    public static Map<String, AnalysisProvider<TokenizerFactory>> tokenizers(final Map<String, AnalysisProvider<TokenizerFactory>> providers) {
+        return instrument(AnalysisStats.TOKENIZER, providers, InstrumentedFactories::tokenizerFactory);
+    }
+
+    public static Map<String, AnalysisProvider<TokenFilterFactory>> tokenFilters(
+            final Map<String, AnalysisProvider<TokenFilterFactory>> providers) {
+        return instrument(AnalysisStats.TOKEN_FILTER, providers, InstrumentedFactories::tokenFilterFactory);
+    }
+
+    public static Map<String, AnalysisProvider<CharFilterFactory>> charFilters(
+            final Map<String, AnalysisProvider<CharFilterFactory>> providers) {
+        return instrument(AnalysisStats.CHAR_FILTER, providers, InstrumentedFactories::charFilterFactory);
+    }
+
+    private static <T> Map<String, AnalysisProvider<T>> instrument(final String kind, final Map<String, AnalysisProvider<T>> providers,
+            final BiFunction<T, ComponentStats, T> instrumenter) {
+        final Map<String, AnalysisProvider<T>> instrumented = new HashMap<>();
+        for (final Map.Entry<String, AnalysisProvider<T>> entry : providers.entrySet()) {
+            final String type = entry.getKey();
+            final AnalysisProvider<T> provider = entry.getValue();
+            instrumented.put(type, new AnalysisProvider<T>() {
+                @Override
+                public T get(final IndexSettings indexSettings, final Environment environment, final String name, final Settings settings)
+                        throws IOException {
+                    final T factory = provider.get(indexSettings, environment, name, settings);
+                    if (!AnalysisStats.STATS_ENABLED.get(indexSettings.getSettings())) {
+                        return factory;
+                    }
+                    final ComponentStats stats =
+                            AnalysisStats.getInstance().getComponentStats(indexSettings.getIndex(), kind, name, type);
+                    return instrumenter.apply(factory, stats);
+                }
+
+                @Override
+                public T get(final Environment environment, final String name) throws IOException {
+                    return provider.get(environment, name);
+                }
+
+                @Override
+                public boolean requiresAnalysisSettings() {
+                    return provider.requiresAnalysisSettings();
+                }
+            });
+        }
+        return instrumented;
+    }
+
+    static TokenizerFactory tokenizerFactory(final TokenizerFactory factory, final ComponentStats stats) {
+        if (factory instanceof NGramSynonymTokenizerFactory synonymFactory) {
+            stats.setGauge("synonym_cache_hits", synonymFactory, NGramSynonymTokenizerFactory::getSynonymCacheHits);
+            stats.setGauge("synonym_cache_misses", synonymFactory, NGramSynonymTokenizerFactory::getSynonymCacheMisses);
+        }
+        return new InstrumentedTokenizerFactory(factory, stats);
+    }
+
+    static TokenFilterFactory tokenFilterFactory(final TokenFilterFactory factory, final ComponentStats stats) {
+        if (factory instanceof NormalizingTokenFilterFactory) {
+            return new NormalizingInstrumentedTokenFilterFactory(factory, stats);
+        }
+        return new InstrumentedTokenFilterFactory(factory, stats);
+    }
+
+    static CharFilterFactory charFilterFactory(final CharFilterFactory factory, final ComponentStats stats) {
+        if (factory instanceof NormalizingCharFilterFactory) {
+            return new NormalizingInstrumentedCharFilterFactory(factory, stats);
+        }
+        return new InstrumentedCharFilterFactory(factory, stats);
+    }
+
+    private static final class InstrumentedTokenizerFactory implements TokenizerFactory {
+        private final TokenizerFactory factory;
+        private final ComponentStats stats;
+
+        InstrumentedTokenizerFactory(final TokenizerFactory factory, final ComponentStats stats) {
+            this.factory = factory;
+            this.stats = stats;
+        }
+
+        @Override
+        public String name() {
+            return factory.name();
+        }
+
+        @Override
+        public Tokenizer create() {
+            return new InstrumentedTokenizer(factory.create(), stats);
+        }
+    }
+
+    private static class InstrumentedTokenFilterFactory implements TokenFilterFactory {
+        private final TokenFilterFactory factory;
+        private final ComponentStats stats;
+
+        InstrumentedTokenFilterFactory(final TokenFilterFactory factory, final ComponentStats stats) {
+            this.factory = factory;
+            this.stats = stats;
+        }
+
+        private TokenFilterFactory wrap(final TokenFilterFactory result) {
+            return result == factory ? this : tokenFilterFactory(result, stats);
+        }
+
+        @Override
+        public String name() {
+            return factory.name();
+        }
+
+        @Override
+        public TokenStream create(final TokenStream tokenStream) {
+            return new InstrumentedTokenFilter(factory.create(tokenStream), tokenStream, stats);
+        }
+
+        @Override
+        public TokenStream normalize(final TokenStream tokenStream) {
+            return factory.normalize(tokenStream);
+        }
+
+        @Override
+        public boolean breaksFastVectorHighlighter() {
+            return factory.breaksFastVectorHighlighter();
+        }
+
+        @Override
+        public TokenFilterFactory getChainAwareTokenFilterFactory(final TokenizerFactory tokenizer, final List<CharFilterFactory> charFilters,
+                final List<TokenFilterFactory> previousTokenFilters, final Function<String, TokenFilterFactory> allFilters) {
+            return wrap(factory.getChainAwareTokenFilterFactory(tokenizer, charFilters, previousTokenFilters, allFilters));
+        }
+
+        @Override
+        public TokenFilterFactory getChainAwareTokenFilterFactory(final TokenizerFactory tokenizer, final List<CharFilterFactory> charFilters,
+                final List<TokenFilterFactory> previousTokenFilters, final Function<String, TokenFilterFactory> allFilters,
+                final Function<String, Analyzer> analyzersBuiltSoFar) {
+            return wrap(factory.getChainAwareTokenFilterFactory(tokenizer, charFilters, previousTokenFilters, allFilters,
+                    analyzersBuiltSoFar));
+        }
+
+        @Override
+        public TokenFilterFactory getSynonymFilter() {
+            return wrap(factory.getSynonymFilter());
+        }
+
+        @Override
+        public AnalysisMode getAnalysisMode() {
+            return factory.getAnalysisMode();
+        }
+
+        @Override
+        public void reloadCachedResources() {
+            factory.reloadCachedResources();
+        }
+    }
+
+    private static final class NormalizingInstrumentedTokenFilterFactory extends InstrumentedTokenFilterFactory
+            implements NormalizingTokenFilterFactory {
+        NormalizingInstrumentedTokenFilterFactory(final TokenFilterFactory factory, final ComponentStats stats) {
+            super(factory, stats);
+        }
+    }
+
+    private static class InstrumentedCharFilterFactory implements CharFilterFactory {
+        private final CharFilterFactory factory;
+        private final ComponentStats stats;
+
+        InstrumentedCharFilterFactory(final CharFilterFactory factory, final ComponentStats stats) {
+            this.factory = factory;
+            this.stats = stats;
+        }
+
+        @Override
+        public String name() {
+            return factory.name();
+        }
+
+        @Override
+        public Reader create(final Reader reader) {
+            return new InstrumentedCharFilter(factory.create(reader), reader, stats);
+        }
+
+        @Override
+        public Reader normalize(final Reader reader) {
+            return factory.normalize(reader);
+        }
+    }
+
+    private static final class NormalizingInstrumentedCharFilterFactory extends InstrumentedCharFilterFactory
+            implements NormalizingCharFilterFactory {
+        NormalizingInstrumentedCharFilterFactory(final CharFilterFactory factory, final ComponentStats stats) {
+            super(factory, stats);
+        }
+    }
+}
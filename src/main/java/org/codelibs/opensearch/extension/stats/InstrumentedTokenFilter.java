@@ -0,0 +1,104 @@
+package org.codelibs.opensearch.extension.stats;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * Token filter which measures the stream created by a token filter factory.
+ */
+final class InstrumentedTokenFilter extends TokenFilter implements Timed {
+
+    private final ComponentStats stats;
+
+    private final Timed upstream;
+
+    private final CharTermAttribute termAtt;
+
+    private long nanos;
+
+    private long ownNanos;
+
+    private long tokens;
+
+    private long chars;
+
+    private boolean timed;
+
+    private boolean recorded = true;
+
+    /**
+     * @param filtered the stream created by the factory
+     * @param source the stream passed to the factory
+     * @param stats the counters to update
+     */
+    InstrumentedTokenFilter(final TokenStream filtered, final TokenStream source, final ComponentStats stats) {
+        super(filtered);
+        this.stats = stats;
+        upstream = source instanceof Timed ? (Timed) source : null;
+        termAtt = addAttribute(CharTermAttribute.class);
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        final boolean hasNext;
+        if (timed) {
+            final long upstreamNanos = upstream == null ? 0 : upstream.getNanos();
+            final long start = System.nanoTime();
+            hasNext = input.incrementToken();
+            final long elapsed = System.nanoTime() - start;
+            nanos += elapsed;
+            ownNanos += upstream == null ? elapsed : elapsed - (upstream.getNanos() - upstreamNanos);
+        } else {
+            hasNext = input.incrementToken();
+        }
+        if (hasNext) {
+            tokens++;
+            chars += termAtt.length();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        // the upstream has been reset and has decided
+        timed = upstream != null ? upstream.isTimed() : stats.sample();
+        nanos = 0;
+        ownNanos = 0;
+        tokens = 0;
+        chars = 0;
+        recorded = false;
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        record();
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        record();
+    }
+
+    private void record() {
+        if (!recorded) {
+            recorded = true;
+            stats.add(tokens, chars, ownNanos, timed);
+        }
+    }
+
+    @Override
+    public boolean isTimed() {
+        return timed;
+    }
+
+    @Override
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,116 @@
+package org.codelibs.opensearch.extension.stats;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.codelibs.opensearch.extension.analysis.SharedAttributeFactory;
+
+/**
+ * Tokenizer which measures the tokenizer it delegates to.
+ * It uses the attribute instances of the delegate, so tokens are not copied.
+ */
+final class InstrumentedTokenizer extends Tokenizer implements Timed {
+
+    private final Tokenizer tokenizer;
+
+    private final ComponentStats stats;
+
+    private final CharTermAttribute termAtt;
+
+    private Timed upstream;
+
+    private long nanos;
+
+    private long ownNanos;
+
+    private long tokens;
+
+    private long chars;
+
+    private boolean timed;
+
+    private boolean recorded = true;
+
+    InstrumentedTokenizer(final Tokenizer tokenizer, final ComponentStats stats) {
+        super(new SharedAttributeFactory(tokenizer));
+        this.tokenizer = tokenizer;
+        this.stats = stats;
+        termAtt = addAttribute(CharTermAttribute.class);
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        final boolean hasNext;
+        if (timed) {
+            final long upstreamNanos = upstream == null ? 0 : upstream.getNanos();
+            final long start = System.nanoTime();
+            hasNext = tokenizer.incrementToken();
+            addNanos(System.nanoTime() - start, upstreamNanos);
+        } else {
+            hasNext = tokenizer.incrementToken();
+        }
+        if (hasNext) {
+            tokens++;
+            chars += termAtt.length();
+        }
+        return hasNext;
+    }
+
+    private void addNanos(final long elapsed, final long upstreamNanos) {
+        nanos += elapsed;
+        ownNanos += upstream == null ? elapsed : elapsed - (upstream.getNanos() - upstreamNanos);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        upstream = input instanceof Timed ? (Timed) input : null;
+        timed = upstream != null ? upstream.isTimed() : stats.sample();
+        nanos = 0;
+        ownNanos = 0;
+        tokens = 0;
+        chars = 0;
+        recorded = false;
+        tokenizer.setReader(input);
+        if (timed) {
+            final long upstreamNanos = upstream == null ? 0 : upstream.getNanos();
+            final long start = System.nanoTime();
+            tokenizer.reset();
+            addNanos(System.nanoTime() - start, upstreamNanos);
+        } else {
+            tokenizer.reset();
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        tokenizer.end();
+        record();
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokenizer.close();
+        super.close();
+        record();
+    }
+
+    private void record() {
+        if (!recorded) {
+            recorded = true;
+            stats.add(tokens, chars, ownNanos, timed);
+        }
+    }
+
+    @Override
+    public boolean isTimed() {
+        return timed;
+    }
+
+    @Override
+    public long getNanos() {
+        return nanos;
+    }
+}
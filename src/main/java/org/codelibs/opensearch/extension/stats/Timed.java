@@ -0,0 +1,17 @@
+package org.codelibs.opensearch.extension.stats;
+
+/**
+ * Instrumented stream which lets the next instrumented stream in the chain exclude its time.
+ */
+interface Timed {
+
+    /**
+     * Returns whether the current stream is timed, so that the next instrumented stream in the chain times it too.
+     */
+    boolean isTimed();
+
+    /**
+     * Returns the nanoseconds spent in this stream and the streams before it since it was reset, or 0 if the stream is not timed.
+     */
+    long getNanos();
+}
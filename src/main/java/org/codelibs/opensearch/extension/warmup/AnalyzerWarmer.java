@@ -0,0 +1,226 @@
+package org.codelibs.opensearch.extension.warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.codelibs.opensearch.extension.stats.AnalysisStats;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Setting.Property;
+import org.opensearch.core.common.Strings;
+import org.opensearch.index.analysis.AnalyzerComponents;
+import org.opensearch.index.analysis.AnalyzerComponentsProvider;
+import org.opensearch.index.analysis.CharFilterFactory;
+import org.opensearch.index.analysis.NamedAnalyzer;
+import org.opensearch.index.analysis.TokenFilterFactory;
+
+/**
+ * Runs a corpus through the analyzers of an index which use components of this plugin,
+ * so that dictionaries, lazily built structures and the JIT are warm before the first requests.
+ */
+public class AnalyzerWarmer implements Runnable {
+
+    private static final Logger logger = LogManager.getLogger(AnalyzerWarmer.class);
+
+    public static final Setting<Boolean> WARMUP_ENABLED = Setting.boolSetting("index.analysis_extension.warmup.enabled", false,
+            Property.IndexScope);
+
+    public static final Setting<String> WARMUP_CORPUS = Setting.simpleString("index.analysis_extension.warmup.corpus",
+            AnalyzerWarmer::validateCorpus, Property.IndexScope);
+
+    public static final Setting<Integer> WARMUP_ITERATIONS = Setting.intSetting("index.analysis_extension.warmup.iterations", 100, 1,
+            Property.IndexScope);
+
+    static final List<String> DEFAULT_CORPUS = List.of(//
+            "東京スカイツリーの最寄り駅はとうきょうスカイツリー駅です。", //
+            "関西国際空港から大阪駅までは電車で約一時間かかります。", //
+            "人々は時々、代々木公園を散歩します。", //
+            "コンピューター、コンピュータ、ｺﾝﾋﾟｭｰﾀｰの表記揺れ。", //
+            "二〇二四年十二月三十一日に1,234円を支払いました。", //
+            "Full-text search engines tokenize documents into terms.", //
+            "OpenSearch 3.0 supports Lucene 10 and Java 21.", //
+            "iPhone15とGalaxy S24のバッテリー性能を比較する。");
+
+    private static final String FIELD = "_warmup";
+
+    private static final String PACKAGE = "org.codelibs.opensearch.extension.";
+
+    private final String index;
+
+    private final Map<String, Analyzer> analyzers;
+
+    private final Path corpus;
+
+    private final int iterations;
+
+    private volatile boolean cancelled;
+
+    private long analyzed;
+
+    /**
+     * @param index the index name, for logging
+     * @param analyzers the analyzers to warm up, by name
+     * @param corpus the file with one text per line, or null for the default corpus
+     * @param iterations the number of times the corpus is analyzed by each analyzer
+     */
+    public AnalyzerWarmer(final String index, final Map<String, Analyzer> analyzers, final Path corpus, final int iterations) {
+        this.index = index;
+        this.analyzers = new LinkedHashMap<>(analyzers);
+        this.corpus = corpus;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Checks that the corpus is a relative path which does not go up with "..".
+     * Whether it stays within the config directory is checked by {@link #resolveCorpus(Path, String)}.
+     */
+    static void validateCorpus(final String corpus) {
+        if (corpus.isEmpty()) {
+            return;
+        }
+        final Path path = Path.of(corpus).normalize();
+        if (path.isAbsolute() || path.startsWith("..")) {
+            throw new IllegalArgumentException("[" + WARMUP_CORPUS.getKey() + "] must be a path within the config directory: " + corpus);
+        }
+    }
+
+    /**
+     * Resolves the corpus file against the config directory, which it must not leave.
+     */
+    public static Path resolveCorpus(final Path configPath, final String corpus) {
+        final Path base = configPath.toAbsolutePath().normalize();
+        final Path path = base.resolve(corpus).normalize();
+        if (!path.startsWith(base)) {
+            throw new IllegalArgumentException("[" + WARMUP_CORPUS.getKey() + "] must be a path within the config directory: " + corpus);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the analyzers which have a char filter, a tokenizer or a token filter of this plugin.
+     */
+    public static Map<String, Analyzer> selectAnalyzers(final Map<String, NamedAnalyzer> analyzers) {
+        final Map<String, Analyzer> selected = new LinkedHashMap<>();
+        for (final Map.Entry<String, NamedAnalyzer> entry : analyzers.entrySet()) {
+            if (usesExtension(entry.getValue().analyzer())) {
+                selected.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return selected;
+    }
+
+    static boolean usesExtension(final Analyzer analyzer) {
+        if (isExtension(analyzer)) {
+            return true;
+        }
+        if (!(analyzer instanceof AnalyzerComponentsProvider)) {
+            return false;
+        }
+        final AnalyzerComponents components = ((AnalyzerComponentsProvider) analyzer).getComponents();
+        if (isExtension(components.getTokenizerFactory())) {
+            return true;
+        }
+        for (final CharFilterFactory factory : components.getCharFilters()) {
+            if (isExtension(factory)) {
+                return true;
+            }
+        }
+        for (final TokenFilterFactory factory : components.getTokenFilters()) {
+            if (isExtension(factory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isExtension(final Object component) {
+        return component != null && component.getClass().getName().startsWith(PACKAGE);
+    }
+
+    public boolean isEmpty() {
+        return analyzers.isEmpty();
+    }
+
+    /**
+     * Stops the warm-up before the next text.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void run() {
+        final long startTime = System.nanoTime();
+        final List<String> texts;
+        try {
+            texts = loadCorpus();
+        } catch (final IOException e) {
+            logger.warn("[{}] Failed to load the warm-up corpus: {}", index, corpus, e);
+            return;
+        }
+        final List<String> names = new ArrayList<>(analyzers.keySet());
+        for (int i = 0; i < iterations && !names.isEmpty(); i++) {
+            for (final String name : new ArrayList<>(names)) {
+                for (final String text : texts) {
+                    if (cancelled) {
+                        logger.debug("[{}] Cancelled the analyzer warm-up.", index);
+                        return;
+                    }
+                    try {
+                        final Analyzer analyzer = analyzers.get(name);
+                        AnalysisStats.runSuspended(() -> analyze(analyzer, text));
+                    } catch (final AlreadyClosedException e) {
+                        logger.debug("[{}] Stopped the analyzer warm-up: the index is closed.", index);
+                        return;
+                    } catch (final Exception e) {
+                        logger.warn("[{}] Failed to warm up analyzer: {}", index, name, e);
+                        names.remove(name);
+                        break;
+                    }
+                }
+            }
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info("[{}] Warmed up {} analyzer(s) with {} text(s) in {}ms.", index, names.size(), analyzed,
+                    (System.nanoTime() - startTime) / 1_000_000L);
+        }
+    }
+
+    private void analyze(final Analyzer analyzer, final String text) throws IOException {
+        try (TokenStream stream = analyzer.tokenStream(FIELD, text)) {
+            stream.reset();
+            while (stream.incrementToken()) {
+                // nothing
+            }
+            stream.end();
+        }
+        analyzed++;
+    }
+
+    private List<String> loadCorpus() throws IOException {
+        if (corpus == null) {
+            return DEFAULT_CORPUS;
+        }
+        final List<String> texts = new ArrayList<>();
+        for (final String line : Files.readAllLines(corpus, StandardCharsets.UTF_8)) {
+            if (Strings.hasText(line)) {
+                texts.add(line);
+            }
+        }
+        return texts;
+    }
+
+    long getAnalyzed() {
+        return analyzed;
+    }
+}
@@ -0,0 +1,118 @@
+package org.codelibs.opensearch.extension;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ja.JapaneseAnalyzer;
+import org.apache.lucene.analysis.ja.JapaneseCompletionAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.Version;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.analysis.AnalyzerProvider;
+import org.opensearch.index.analysis.PreBuiltAnalyzerProviderFactory;
+import org.opensearch.indices.analysis.AnalysisModule.AnalysisProvider;
+
+public class ExtensionPluginAnalyzerTest {
+
+    private Path tempDir;
+
+    private Environment env;
+
+    private ExtensionPlugin plugin;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("extension_plugin_analyzer_test");
+        final Path configDir = Files.createDirectories(tempDir.resolve("config"));
+        env = new Environment(Settings.builder().put("path.home", tempDir.toString()).build(), configDir);
+        plugin = new ExtensionPlugin(Settings.EMPTY, configDir);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (var paths = Files.walk(tempDir)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void test_analyzers() throws Exception {
+        Files.write(env.configDir().resolve("userdict_ja.txt"), List.of("東京スカイツリー,東京 スカイツリー,トウキョウ スカイツリー,カスタム名詞"),
+                StandardCharsets.UTF_8);
+        final Map<String, AnalysisProvider<AnalyzerProvider<? extends Analyzer>>> analyzers = plugin.getAnalyzers();
+
+        final Analyzer analyzer = analyzers.get("japanese_analyzer")
+                .get(newIndexSettings("test1"), env, "ja", Settings.builder().put("user_dictionary", "userdict_ja.txt").build())
+                .get();
+        assertTrue(analyzer instanceof JapaneseAnalyzer);
+        // the katakana stemmer removes the trailing prolonged sound mark
+        assertEquals(List.of("東京", "スカイツリ", "行く"), analyze(analyzer, "東京スカイツリーに行った"));
+
+        final Analyzer completionAnalyzer = analyzers.get("japanese_completion_analyzer")
+                .get(newIndexSettings("test1"), env, "ja_completion", Settings.builder().put("mode", "query").build())
+                .get();
+        assertTrue(completionAnalyzer instanceof JapaneseCompletionAnalyzer);
+    }
+
+    @Test
+    public void test_preBuiltAnalyzers() throws Exception {
+        final Settings settings = Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT).build();
+        final List<PreBuiltAnalyzerProviderFactory> factories = plugin.getPreBuiltAnalyzerProviderFactories();
+        final List<String> names = new ArrayList<>();
+        for (final PreBuiltAnalyzerProviderFactory factory : factories) {
+            names.add(factory.getName());
+            final AnalyzerProvider<?> provider1 = factory.get(newIndexSettings("test1"), env, factory.getName(), settings);
+            final AnalyzerProvider<?> provider2 = factory.get(newIndexSettings("test2"), env, factory.getName(), settings);
+            assertSame(provider1, provider2);
+            assertSame(provider1.get(), provider2.get());
+        }
+        assertEquals(List.of("japanese_analyzer", "japanese_completion_analyzer"), names);
+
+        final Analyzer analyzer = factories.get(0).get(newIndexSettings("test1"), env, "japanese_analyzer", settings).get();
+        assertEquals(List.of("東京", "スカイ", "ツリー", "行く"), analyze(analyzer, "東京スカイツリーに行った"));
+
+        final Analyzer configured = plugin.getAnalyzers()
+                .get("japanese_analyzer")
+                .get(newIndexSettings("test1"), env, "japanese_analyzer", Settings.EMPTY)
+                .get();
+        assertNotSame(analyzer, configured);
+        assertEquals(analyze(configured, "東京スカイツリーに行った"), analyze(analyzer, "東京スカイツリーに行った"));
+    }
+
+    private static List<String> analyze(final Analyzer analyzer, final String text) throws IOException {
+        final List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream("f", text)) {
+            final CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(termAtt.toString());
+            }
+            stream.end();
+        }
+        return terms;
+    }
+
+    private static IndexSettings newIndexSettings(final String index) {
+        final Settings settings = Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT).build();
+        final IndexMetadata metadata = IndexMetadata.builder(index).settings(settings).numberOfShards(1).numberOfReplicas(0).build();
+        return new IndexSettings(metadata, Settings.EMPTY);
+    }
+}
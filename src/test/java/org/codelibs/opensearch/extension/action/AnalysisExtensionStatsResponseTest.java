@@ -0,0 +1,63 @@
+package org.codelibs.opensearch.extension.action;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.net.InetAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.xcontent.json.JsonXContent;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.transport.TransportAddress;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+public class AnalysisExtensionStatsResponseTest {
+
+    @Test
+    public void test_serialization() throws Exception {
+        final Map<String, Object> component = new LinkedHashMap<>();
+        component.put("type", "japanese_tokenizer");
+        component.put("streams", 2L);
+        component.put("tokens", 10L);
+        final Map<String, Object> indices = Map.of("my_index", Map.of("tokenizer", Map.of("ja", component)));
+        final DiscoveryNode node1 = new DiscoveryNode("node1", "id1", new TransportAddress(InetAddress.getLoopbackAddress(), 9300),
+                Map.of(), Set.of(), Version.CURRENT);
+        final DiscoveryNode node2 = new DiscoveryNode("node2", "id2", new TransportAddress(InetAddress.getLoopbackAddress(), 9301),
+                Map.of(), Set.of(), Version.CURRENT);
+        final AnalysisExtensionStatsResponse response = new AnalysisExtensionStatsResponse(new ClusterName("test"),
+                List.of(new AnalysisExtensionNodeStats(node1, indices), new AnalysisExtensionNodeStats(node2, Map.of())), List.of());
+
+        final BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+        final StreamInput in = out.bytes().streamInput();
+        final AnalysisExtensionStatsResponse read = new AnalysisExtensionStatsResponse(in);
+        assertEquals(2, read.getNodes().size());
+        assertEquals(indices, read.getNodesMap().get("id1").getIndices());
+
+        final XContentBuilder builder = JsonXContent.contentBuilder().startObject();
+        read.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        builder.endObject();
+        assertEquals("{\"nodes\":{\"id1\":{\"name\":\"node1\",\"indices\":{\"my_index\":{\"tokenizer\":{\"ja\":"
+                + "{\"type\":\"japanese_tokenizer\",\"streams\":2,\"tokens\":10}}}}},\"id2\":{\"name\":\"node2\",\"indices\":{}}}}",
+                builder.toString());
+    }
+
+    @Test
+    public void test_request() throws Exception {
+        final AnalysisExtensionStatsRequest request = new AnalysisExtensionStatsRequest("id1").indices("a", "b");
+        final BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+        final AnalysisExtensionStatsRequest read = new AnalysisExtensionStatsRequest(out.bytes().streamInput());
+        assertArrayEquals(new String[] { "id1" }, read.nodesIds());
+        assertArrayEquals(new String[] { "a", "b" }, read.indices());
+    }
+}
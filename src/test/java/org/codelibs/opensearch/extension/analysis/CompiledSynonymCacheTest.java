@@ -0,0 +1,210 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.fst.Util;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+
+public class CompiledSynonymCacheTest {
+
+    private static final String RULES = "PC,personal computer\nlaptop,notebook\nusa => united states\n";
+
+    private Path tempDir;
+
+    private Environment env;
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("test");
+        env = newEnvironment(Settings.EMPTY);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private Environment newEnvironment(final Settings settings) {
+        return new Environment(Settings.builder().put(settings).put("path.home", tempDir.toString()).build(), tempDir.resolve("config"));
+    }
+
+    private SynonymMap get(final Environment environment, final String rules, final boolean expand, final boolean ignoreCase)
+            throws Exception {
+        return CompiledSynonymCache.get(environment, rules, "solr", expand, ignoreCase, () -> {
+            builds.incrementAndGet();
+            return SynonymLoader.buildSynonymMap(rules, "solr", expand, SynonymLoader.getAnalyzer(ignoreCase));
+        });
+    }
+
+    private List<Path> files() throws Exception {
+        try (Stream<Path> stream = Files.list(CompiledSynonymCache.getDirectory(env))) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    private static BytesRef lookup(final SynonymMap synonymMap, final String input) throws Exception {
+        return Util.get(synonymMap.fst, new BytesRef(input));
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        final SynonymMap built = get(env, RULES, true, false);
+        assertEquals(1, builds.get());
+        assertEquals(1, files().size());
+        assertTrue(files().get(0).startsWith(tempDir.resolve("data")));
+
+        final SynonymMap loaded = get(env, RULES, true, false);
+        assertEquals(1, builds.get());
+        assertNotSame(built, loaded);
+        assertEquals(built.maxHorizontalContext, loaded.maxHorizontalContext);
+        assertEquals(built.words.size(), loaded.words.size());
+        assertEquals(lookup(built, "laptop"), lookup(loaded, "laptop"));
+        assertNotNull(lookup(loaded, "usa"));
+        assertNull(lookup(loaded, "notepad"));
+    }
+
+    @Test
+    public void testKey() throws Exception {
+        get(env, RULES, true, false);
+        get(env, RULES, false, false);
+        get(env, RULES, true, true);
+        get(env, RULES + "tv,television\n", true, false);
+        assertEquals(4, builds.get());
+        assertEquals(4, files().size());
+
+        get(env, RULES + "tv,television\n", true, false);
+        assertEquals(4, builds.get());
+    }
+
+    @Test
+    public void testCorruptedFile() throws Exception {
+        get(env, RULES, true, false);
+        final Path file = files().get(0);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 20);
+            raf.write(0xff);
+        }
+
+        final SynonymMap synonymMap = get(env, RULES, true, false);
+        assertEquals(2, builds.get());
+        assertNotNull(lookup(synonymMap, "laptop"));
+
+        get(env, RULES, true, false);
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    public void testTruncatedFile() throws Exception {
+        get(env, RULES, true, false);
+        // the first load verifies the whole file, and the later loads only the header and footer
+        get(env, RULES, true, false);
+        final Path file = files().get(0);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 8);
+        }
+
+        final SynonymMap synonymMap = get(env, RULES, true, false);
+        assertEquals(2, builds.get());
+        assertNotNull(lookup(synonymMap, "laptop"));
+    }
+
+    @Test
+    public void testUnwritableDirectory() throws Exception {
+        final Path dir = CompiledSynonymCache.getDirectory(env);
+        Files.createDirectories(dir.getParent());
+        // a file in place of the directory cannot be written to, whatever the permissions of the user are
+        Files.write(dir, new byte[0]);
+        dir.toFile().setReadOnly();
+
+        final SynonymMap synonymMap = get(env, RULES, true, false);
+        assertNotNull(lookup(synonymMap, "laptop"));
+        get(env, RULES, true, false);
+        assertEquals(2, builds.get());
+        assertTrue(Files.isRegularFile(dir));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        final Environment disabled = newEnvironment(Settings.builder().put(CompiledSynonymCache.ENABLED.getKey(), false).build());
+        assertNull(CompiledSynonymCache.getDirectory(disabled));
+        get(disabled, RULES, true, false);
+        get(disabled, RULES, true, false);
+        assertEquals(2, builds.get());
+        assertFalse(Files.exists(tempDir.resolve("data").resolve(CompiledSynonymCache.DIRECTORY)));
+    }
+
+    @Test
+    public void testPrune() throws Exception {
+        get(env, RULES, true, false);
+        get(env, RULES, false, false);
+        final List<Path> files = files();
+        Files.setLastModifiedTime(files.get(0), FileTime.fromMillis(System.currentTimeMillis() - 2 * 24 * 60 * 60 * 1000L));
+
+        CompiledSynonymCache.prune(CompiledSynonymCache.getDirectory(env), 24 * 60 * 60 * 1000L, 100);
+        assertEquals(List.of(files.get(1)), files());
+    }
+
+    @Test
+    public void testMaxFiles() throws Exception {
+        final Environment limited = newEnvironment(Settings.builder().put(CompiledSynonymCache.MAX_FILES.getKey(), 2).build());
+        final long now = System.currentTimeMillis();
+        get(limited, RULES, true, false);
+        final Path first = files().get(0);
+        Files.setLastModifiedTime(first, FileTime.fromMillis(now - 3 * 60_000L));
+        get(limited, RULES + "tv,television\n", true, false);
+        final Path second = files().stream().filter(f -> !f.equals(first)).findFirst().get();
+        Files.setLastModifiedTime(second, FileTime.fromMillis(now - 2 * 60_000L));
+        // loading the first file marks it as used
+        get(limited, RULES, true, false);
+        assertEquals(2, builds.get());
+
+        // each edit of the rules writes a file, and the least recently used ones are removed
+        get(limited, RULES + "pc,computer\n", true, false);
+        assertEquals(2, files().size());
+        assertTrue(files().contains(first));
+        assertFalse(files().contains(second));
+        get(limited, RULES + "tv,television\n", true, false);
+        assertEquals(4, builds.get());
+        assertEquals(2, files().size());
+    }
+
+    @Test
+    public void testSynonymLoader() throws Exception {
+        Files.createDirectories(env.configDir());
+        Files.writeString(env.configDir().resolve("synonyms.txt"), RULES);
+        final Settings settings = Settings.builder().put("synonyms_path", "synonyms.txt").build();
+
+        final SynonymLoader loader1 = new SynonymLoader(env, settings, true, false);
+        assertNotNull(lookup(loader1.getSynonymMap(), "laptop"));
+        loader1.close();
+        assertEquals(1, files().size());
+        final long lastModified = Files.getLastModifiedTime(files().get(0)).toMillis();
+
+        // a new loader after the in-memory entry is released loads the file
+        Files.setLastModifiedTime(files().get(0), FileTime.fromMillis(lastModified - 60_000L));
+        final SynonymLoader loader2 = new SynonymLoader(env, settings, true, false);
+        assertNotNull(lookup(loader2.getSynonymMap(), "laptop"));
+        loader2.close();
+        assertTrue(Files.getLastModifiedTime(files().get(0)).toMillis() > lastModified - 60_000L);
+    }
+}
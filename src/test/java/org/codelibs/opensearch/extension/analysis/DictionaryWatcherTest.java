@@ -0,0 +1,211 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DictionaryWatcherTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("dictionary_watcher_test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (tempDir != null) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void write(Path file, String content, long lastModified) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+    }
+
+    private static void await(AtomicInteger counter, int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && counter.get() < expected; i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private void assertNotified(DictionaryWatcher watcher) throws Exception {
+        Path file = tempDir.resolve("words.txt");
+        write(file, "a\n", 1000000L);
+
+        AtomicInteger counter1 = new AtomicInteger();
+        AtomicInteger counter2 = new AtomicInteger();
+        DictionaryWatcher.Subscription subscription1 = watcher.subscribe(file, 100, counter1, AtomicInteger::incrementAndGet);
+        DictionaryWatcher.Subscription subscription2 = watcher.subscribe(file, 100, counter2, AtomicInteger::incrementAndGet);
+        assertTrue(watcher.isWatched(file));
+
+        write(file, "a\nb\n", 2000000L);
+        await(counter1, 1);
+        await(counter2, 1);
+        assertEquals(1, counter1.get());
+        assertEquals(1, counter2.get());
+
+        subscription1.close();
+        assertTrue(watcher.isWatched(file));
+        write(file, "a\nb\nc\n", 3000000L);
+        await(counter2, 2);
+        assertEquals(2, counter2.get());
+        assertEquals(1, counter1.get());
+
+        subscription2.close();
+        assertFalse(watcher.isWatched(file));
+    }
+
+    @Test
+    public void testWatchService() throws Exception {
+        assertNotified(new DictionaryWatcher(50, false));
+    }
+
+    @Test
+    public void testPolling() throws Exception {
+        assertNotified(new DictionaryWatcher(50, true));
+    }
+
+    @Test
+    public void testDebounce() throws Exception {
+        DictionaryWatcher watcher = new DictionaryWatcher(500, false);
+        Path file = tempDir.resolve("words.txt");
+        write(file, "a\n", 1000000L);
+
+        AtomicInteger counter = new AtomicInteger();
+        DictionaryWatcher.Subscription subscription = watcher.subscribe(file, 100, counter, AtomicInteger::incrementAndGet);
+        for (int i = 0; i < 5; i++) {
+            write(file, "a\n" + i + "\n", 2000000L + i);
+        }
+        await(counter, 1);
+        Thread.sleep(1000);
+        assertEquals(1, counter.get());
+
+        subscription.close();
+    }
+
+    @Test
+    public void testPollingDebounce() throws Exception {
+        DictionaryWatcher watcher = new DictionaryWatcher(500, true);
+        Path file = tempDir.resolve("words.txt");
+        write(file, "a\n", 1000000L);
+
+        AtomicInteger counter = new AtomicInteger();
+        DictionaryWatcher.Subscription subscription = watcher.subscribe(file, 100, counter, AtomicInteger::incrementAndGet);
+        for (int i = 0; i < 5; i++) {
+            write(file, "a\n" + i + "\n", 2000000L + i);
+            Thread.sleep(150);
+        }
+        assertEquals(0, counter.get());
+        await(counter, 1);
+        Thread.sleep(1000);
+        assertEquals(1, counter.get());
+
+        subscription.close();
+    }
+
+    @Test
+    public void testReleasedSubscriberPolled() throws Exception {
+        DictionaryWatcher watcher = new DictionaryWatcher(50, true);
+        Path file = tempDir.resolve("words.txt");
+        write(file, "a\n", 1000000L);
+
+        watcher.subscribe(file, 100, new AtomicInteger(), AtomicInteger::incrementAndGet);
+        for (int i = 0; i < 100 && watcher.isWatched(file); i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertFalse(watcher.isWatched(file));
+    }
+
+    @Test
+    public void testReleasedSubscriberOnSubscribe() throws Exception {
+        DictionaryWatcher watcher = new DictionaryWatcher(50, false);
+        Path file = tempDir.resolve("words.txt");
+        write(file, "a\n", 1000000L);
+        Path other = tempDir.resolve("other.txt");
+        write(other, "b\n", 1000000L);
+
+        watcher.subscribe(file, 100, new AtomicInteger(), AtomicInteger::incrementAndGet);
+        AtomicInteger counter = new AtomicInteger();
+        DictionaryWatcher.Subscription subscription = null;
+        for (int i = 0; i < 100 && watcher.isWatched(file); i++) {
+            System.gc();
+            Thread.sleep(50);
+            if (subscription != null) {
+                subscription.close();
+            }
+            subscription = watcher.subscribe(other, 100, counter, AtomicInteger::incrementAndGet);
+        }
+        assertFalse(watcher.isWatched(file));
+        assertTrue(watcher.isWatched(other));
+
+        subscription.close();
+    }
+
+    @Test
+    public void testSymbolicLinkSwap() throws Exception {
+        DictionaryWatcher watcher = new DictionaryWatcher(50, false);
+        // the layout of a Kubernetes ConfigMap volume
+        Files.createDirectories(tempDir.resolve("..2024_01"));
+        write(tempDir.resolve("..2024_01/words.txt"), "a\n", 1000000L);
+        Files.createSymbolicLink(tempDir.resolve("..data"), tempDir.getFileSystem().getPath("..2024_01"));
+        Path file = tempDir.resolve("words.txt");
+        Files.createSymbolicLink(file, tempDir.getFileSystem().getPath("..data/words.txt"));
+
+        AtomicInteger counter = new AtomicInteger();
+        DictionaryWatcher.Subscription subscription = watcher.subscribe(file, 60000, counter, AtomicInteger::incrementAndGet);
+        Files.createDirectories(tempDir.resolve("..2024_02"));
+        write(tempDir.resolve("..2024_02/words.txt"), "a\nb\n", 2000000L);
+        Files.createSymbolicLink(tempDir.resolve("..data_tmp"), tempDir.getFileSystem().getPath("..2024_02"));
+        Files.move(tempDir.resolve("..data_tmp"), tempDir.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+        await(counter, 1);
+        assertEquals(1, counter.get());
+
+        subscription.close();
+    }
+
+    @Test
+    public void testPolledWhenWatched() throws Exception {
+        DictionaryWatcher watcher = new DictionaryWatcher(50, false);
+        Path target = Files.createDirectories(tempDir.resolve("target")).resolve("words.txt");
+        write(target, "a\n", 1000000L);
+        Path file = Files.createDirectories(tempDir.resolve("config")).resolve("words.txt");
+        Files.createSymbolicLink(file, target);
+
+        AtomicInteger counter = new AtomicInteger();
+        DictionaryWatcher.Subscription subscription = watcher.subscribe(file, 100, counter, AtomicInteger::incrementAndGet);
+        // the change is outside the watched directory
+        write(target, "a\nb\n", 2000000L);
+        await(counter, 1);
+        assertEquals(1, counter.get());
+
+        subscription.close();
+    }
+
+    @Test
+    public void testUnchangedFile() throws Exception {
+        DictionaryWatcher watcher = new DictionaryWatcher(50, true);
+        Path file = tempDir.resolve("words.txt");
+        write(file, "a\n", 1000000L);
+
+        AtomicInteger counter = new AtomicInteger();
+        DictionaryWatcher.Subscription subscription = watcher.subscribe(file, 100, counter, AtomicInteger::incrementAndGet);
+        Thread.sleep(500);
+        assertEquals(0, counter.get());
+
+        subscription.close();
+    }
+}
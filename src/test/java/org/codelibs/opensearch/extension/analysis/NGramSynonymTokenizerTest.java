@@ -18,12 +18,15 @@ package org.codelibs.opensearch.extension.analysis;
  */
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.StringReader;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.PriorityQueue;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -35,6 +38,7 @@ import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.codelibs.opensearch.extension.analysis.NGramSynonymTokenizer.MyToken;
+import org.codelibs.opensearch.extension.analysis.NGramSynonymTokenizer.MyTokenQueue;
 import org.junit.Test;
 
 public class NGramSynonymTokenizerTest {
@@ -102,6 +106,25 @@ public class NGramSynonymTokenizerTest {
                 src1.substring(0, NGramSynonymTokenizer.BUFFER_SIZE + 2), src2.substring(0, NGramSynonymTokenizer.BUFFER_SIZE - 2));
     }
 
+    @Test
+    public void testCustomDelimiters() throws Exception {
+        NGramSynonymTokenizer tokenizer = new NGramSynonymTokenizer(NGramSynonymTokenizer.DEFAULT_N_SIZE, "、。", false, true, null);
+        tokenizer.setReader(new StringReader("ab、。cd。e"));
+        tokenizer.reset();
+        assertBlocks(tokenizer, "0,4,7", "ab", "cd", "e");
+
+        assertTrue(tokenizer.isDelimiter('、'));
+        assertTrue(tokenizer.isDelimiter('。'));
+        assertFalse(tokenizer.isDelimiter(' '));
+        assertFalse(tokenizer.isDelimiter('\uFFFF'));
+        assertFalse(tokenizer.isDelimiter(-1));
+
+        tokenizer = new NGramSynonymTokenizer(NGramSynonymTokenizer.DEFAULT_N_SIZE, "", false, true, null);
+        tokenizer.setReader(new StringReader("a b"));
+        tokenizer.reset();
+        assertBlocks(tokenizer, "0", "a b");
+    }
+
     private NGramSynonymTokenizer getTokenizer(String input) throws IOException {
         NGramSynonymTokenizer tokenizer = new NGramSynonymTokenizer(NGramSynonymTokenizer.DEFAULT_N_SIZE,
                 NGramSynonymTokenizer.DEFAULT_DELIMITERS, false, true, null);
@@ -127,7 +150,7 @@ public class NGramSynonymTokenizerTest {
         for (int i = 0; i < len; i++) {
             assertTrue(tokenizer.getNextBlock());
             assertEquals(expBlkStarts[i], tokenizer.blkStart);
-            assertEquals(expBlocks[i], tokenizer.block.toString());
+            assertEquals(expBlocks[i], tokenizer.getBlock());
         }
 
         assertFalse(tokenizer.getNextBlock());
@@ -190,32 +213,84 @@ public class NGramSynonymTokenizerTest {
 
     @Test
     public void testGetNextUniqueToken() throws Exception {
-        PriorityQueue<MyToken> pq = new PriorityQueue<MyToken>(10, new NGramSynonymTokenizer.MyTokensComparator());
+        MyTokenQueue que = new MyTokenQueue();
 
         MyToken t1 = new MyToken("t1", 10, 11, 1);
-        pq.add(t1);
+        que.startRun();
+        que.add(t1);
         MyToken t2 = new MyToken("t2", 9, 11, 0);
-        pq.add(t2);
+        que.startRun();
+        que.add(t2);
         MyToken t3 = new MyToken("t3", 9, 11, 1);
-        pq.add(t3);
+        que.startRun();
+        que.add(t3);
         MyToken t4 = new MyToken("t2", 9, 11, 0);
-        pq.add(t4);
+        que.startRun();
+        que.add(t4);
         MyToken t5 = new MyToken("t5", 8, 11, 1);
-        pq.add(t5);
+        que.startRun();
+        que.add(t5);
         MyToken t6 = new MyToken("t5", 8, 11, 0);
-        pq.add(t6);
+        que.startRun();
+        que.add(t6);
         MyToken t7 = new MyToken("t7", 7, 11, 1);
-        pq.add(t7);
+        que.startRun();
+        que.add(t7);
         MyToken t8 = new MyToken("t8", 7, 10, 1);
-        pq.add(t8);
+        que.startRun();
+        que.add(t8);
+
+        assertEquals(t8, NGramSynonymTokenizer.getNextUniqueToken(que, null));
+        assertEquals(t7, NGramSynonymTokenizer.getNextUniqueToken(que, t8));
+        assertEquals(t5, NGramSynonymTokenizer.getNextUniqueToken(que, t7));
+        assertEquals(t3, NGramSynonymTokenizer.getNextUniqueToken(que, t5));
+        assertEquals(t2, NGramSynonymTokenizer.getNextUniqueToken(que, t3));
+        assertEquals(t1, NGramSynonymTokenizer.getNextUniqueToken(que, t2));
+        assertNull(NGramSynonymTokenizer.getNextUniqueToken(que, t1));
+    }
 
-        assertEquals(t8, NGramSynonymTokenizer.getNextUniqueToken(pq, null));
-        assertEquals(t7, NGramSynonymTokenizer.getNextUniqueToken(pq, t8));
-        assertEquals(t5, NGramSynonymTokenizer.getNextUniqueToken(pq, t7));
-        assertEquals(t3, NGramSynonymTokenizer.getNextUniqueToken(pq, t5));
-        assertEquals(t2, NGramSynonymTokenizer.getNextUniqueToken(pq, t3));
-        assertEquals(t1, NGramSynonymTokenizer.getNextUniqueToken(pq, t2));
-        assertNull(NGramSynonymTokenizer.getNextUniqueToken(pq, t1));
+    @Test
+    public void testMyTokenQueue() throws Exception {
+        MyTokenQueue que = new MyTokenQueue();
+
+        MyToken t1 = new MyToken("a", 0, 1, 1);
+        MyToken t2 = new MyToken("b", 1, 2, 1);
+        MyToken t3 = new MyToken("ab", 0, 2, 0);
+        MyToken t4 = new MyToken("c", 3, 4, 1);
+        MyToken t5 = new MyToken("bc", 1, 3, 0);
+        MyToken t6 = new MyToken("d", 5, 6, 1);
+        MyToken t7 = new MyToken("dd", 5, 6, 0, 1);
+        que.startGroup();
+        que.startRun();
+        que.add(t1);
+        que.add(t2);
+        que.startRun();
+        que.add(t3);
+        que.add(t5);
+        que.startRun();
+        que.startRun();
+        que.add(t4);
+        que.startGroup();
+        que.startRun();
+        que.add(t6);
+        que.add(t7);
+        assertEquals(7, que.size());
+
+        assertEquals(t1, que.poll());
+        assertEquals(t3, que.poll());
+        assertEquals(t2, que.poll());
+        assertEquals(t5, que.poll());
+        assertEquals(t4, que.poll());
+        assertEquals(t6, que.poll());
+        assertEquals(t7, que.poll());
+        assertNull(que.poll());
+
+        que.clear();
+        assertEquals(0, que.size());
+        assertNull(que.poll());
+        que.add(t2);
+        assertEquals(t2, que.poll());
+        assertNull(que.poll());
     }
 
     @Test
@@ -1368,6 +1443,69 @@ public class NGramSynonymTokenizerTest {
                 "gfed,0,4,1/fedc,1,5,1/edc,2,5,0/dc,3,5,0/c,4,5,0/a,5,6,1/aa,5,6,0/b,6,7,1/bb,6,7,0/c,7,8,1/cd,7,9,0/cde,7,10,0/cdef,7,11,0/defg,8,12,1/efg,9,12,0/fg,10,12,0/g,11,12,0/a,12,13,1/aa,12,13,0");
     }
 
+    @Test
+    public void testReuseTokenizer() throws Exception {
+        Analyzer a = new NGramSynonymTokenizerTestAnalyzer(2, true, "a,aa/b,bb");
+        for (int i = 0; i < 3; i++) {
+            TokenStream stream = a.tokenStream("f", new StringReader("dcab cabcd ab"));
+            stream.reset();
+            assertTokenStream(stream,
+                    "dc,0,2,1/c,1,2,0/a,2,3,1/aa,2,3,0/b,3,4,1/bb,3,4,0/c,5,6,1/a,6,7,1/aa,6,7,0/b,7,8,1/bb,7,8,0/c,8,9,1/cd,8,10,0/a,11,12,1/aa,11,12,0/b,12,13,1/bb,12,13,0");
+            stream.end();
+            stream.close();
+        }
+    }
+
+    @Test
+    public void testMatchCache() throws Exception {
+        SolrSynonymParser parser = new SolrSynonymParser(true, true, SynonymLoader.getAnalyzer(true));
+        parser.parse(new StringReader("a,aa\nb,bb\n"));
+        final SynonymMap synonyms = parser.build();
+        NGramSynonymTokenizer.MatchCacheStats stats = new NGramSynonymTokenizer.MatchCacheStats();
+        NGramSynonymTokenizer tokenizer =
+                new NGramSynonymTokenizer(2, NGramSynonymTokenizer.DEFAULT_DELIMITERS, true, true, new SynonymLoader(null, null, true, null) {
+                    @Override
+                    public SynonymMap getSynonymMap() {
+                        return synonyms;
+                    }
+
+                    @Override
+                    protected void createSynonymMap(boolean reload) {
+                        // nothing
+                    }
+                }, 10, stats);
+        for (int i = 0; i < 3; i++) {
+            tokenizer.setReader(new StringReader("dcab cabcd ab"));
+            tokenizer.reset();
+            assertTokenStream(tokenizer,
+                    "dc,0,2,1/c,1,2,0/a,2,3,1/aa,2,3,0/b,3,4,1/bb,3,4,0/c,5,6,1/a,6,7,1/aa,6,7,0/b,7,8,1/bb,7,8,0/c,8,9,1/cd,8,10,0/a,11,12,1/aa,11,12,0/b,12,13,1/bb,12,13,0");
+            tokenizer.end();
+            tokenizer.close();
+        }
+        assertEquals(3, stats.getMisses());
+        assertEquals(6, stats.getHits());
+        assertEquals(6.0 / 9, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testMatchCacheEviction() throws Exception {
+        NGramSynonymTokenizer.MatchCache cache = new NGramSynonymTokenizer.MatchCache(2, null);
+        List<MyToken> none = new ArrayList<>();
+        cache.put("a".toCharArray(), 1, none);
+        cache.put("b".toCharArray(), 1, none);
+        assertNotNull(cache.get("a".toCharArray(), 1));
+        cache.put("c".toCharArray(), 1, none);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a".toCharArray(), 1));
+        assertNull(cache.get("b".toCharArray(), 1));
+        assertNotNull(cache.get("cx".toCharArray(), 1));
+        assertEquals(3, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
     private void assertTokenStream(TokenStream stream, String expectedStream) throws Exception {
 
         String[] expectedTokens = expectedStream.split("/");
@@ -0,0 +1,39 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PartOfSpeechMatcherTest {
+
+    @Test
+    public void testExact() {
+        final PartOfSpeechMatcher tags = new PartOfSpeechMatcher(List.of("名詞-固有名詞", "助詞"), false);
+        assertTrue(tags.matches("名詞-固有名詞"));
+        assertTrue(tags.matches(new String("名詞-固有名詞")));
+        assertTrue(tags.matches("助詞"));
+        assertFalse(tags.matches("名詞"));
+        assertFalse(tags.matches("名詞-固有名詞-人名"));
+        assertFalse(tags.matches("助詞-格助詞-一般"));
+        assertFalse(tags.matches(null));
+        assertEquals(Set.of("名詞-固有名詞", "助詞"), tags.getTags());
+    }
+
+    @Test
+    public void testMatchSubtypes() {
+        final PartOfSpeechMatcher tags = new PartOfSpeechMatcher(List.of("名詞-固有名詞", "助詞"), true);
+        assertEquals("名詞-固有名詞", tags.match("名詞-固有名詞"));
+        assertEquals("名詞-固有名詞", tags.match("名詞-固有名詞-人名-姓"));
+        assertEquals("助詞", tags.match("助詞-格助詞-一般"));
+        assertNull(tags.match("名詞"));
+        assertNull(tags.match("名詞-一般"));
+        assertNull(tags.match("助詞類"));
+        assertNull(tags.match(null));
+        // the tags stay a plain set of what was configured
+        assertEquals(Set.of("名詞-固有名詞", "助詞"), tags.getTags());
+        assertFalse(tags.getTags().contains("助詞-格助詞-一般"));
+    }
+}
@@ -118,6 +118,20 @@ public class PatternConcatenationFilterFactoryTest {
                 assertEquals("10", tokens.get(1).get("token").toString());
             }
         }
+
+        {
+            String text = "昭和 平成 12年";
+            try (CurlResponse response = OpenSearchCurl.post(node, "/" + index + "/_analyze").header("Content-Type", "application/json")
+                    .body("{\"analyzer\":\"ja_concat_analyzer\",\"text\":\"" + text + "\"}").execute()) {
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> tokens = (List<Map<String, Object>>) response
+                        .getContent(OpenSearchCurl.jsonParser()).get("tokens");
+                assertEquals(3, tokens.size());
+                assertEquals("昭和", tokens.get(0).get("token").toString());
+                assertEquals("平成", tokens.get(1).get("token").toString());
+                assertEquals("12年", tokens.get(2).get("token").toString());
+            }
+        }
     }
 
 }
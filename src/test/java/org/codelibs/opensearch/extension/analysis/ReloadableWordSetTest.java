@@ -0,0 +1,148 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReloadableWordSetTest {
+
+    private Path tempDir;
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("test");
+        file = tempDir.resolve("words.txt");
+        Files.writeString(file, "aaa\nBbb\n");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        final ReloadableWordSet wordSet = new ReloadableWordSet(file, false, 60_000L);
+        final CharArraySet words = wordSet.get();
+        assertTrue(words.contains("aaa"));
+        assertTrue(words.contains("Bbb"));
+        assertFalse(words.contains("bbb"));
+        assertSame(words, wordSet.get());
+        try {
+            words.add("ccc");
+            fail();
+        } catch (final UnsupportedOperationException e) {
+            // expected
+        }
+
+        Files.writeString(file, "ccc\n");
+        wordSet.reload();
+        assertNotSame(words, wordSet.get());
+        assertTrue(wordSet.get().contains("ccc"));
+        assertFalse(wordSet.get().contains("aaa"));
+        assertTrue(words.contains("aaa"));
+
+        Files.delete(file);
+        final CharArraySet current = wordSet.get();
+        wordSet.reload();
+        assertSame(current, wordSet.get());
+        wordSet.close();
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        final ReloadableWordSet wordSet = new ReloadableWordSet(file, true, 60_000L);
+        assertTrue(wordSet.get().contains("AAA"));
+        assertTrue(wordSet.get().contains("bbb"));
+        wordSet.close();
+    }
+
+    @Test
+    public void testMissingFile() {
+        final ReloadableWordSet wordSet = new ReloadableWordSet(tempDir.resolve("missing.txt"), false, 60_000L);
+        assertTrue(wordSet.get().isEmpty());
+        wordSet.close();
+    }
+
+    @Test
+    public void testStopFilter() throws Exception {
+        final ReloadableWordSet wordSet = new ReloadableWordSet(file, false, 60_000L);
+        final Tokenizer tokenizer = new WhitespaceTokenizer();
+        final TokenStream stream = new WordSetStopFilter(tokenizer, wordSet);
+        assertEquals(List.of("Aaa", "ccc"), analyze(tokenizer, stream, "aaa Aaa Bbb ccc"));
+
+        Files.writeString(file, "ccc\n");
+        wordSet.reload();
+        assertEquals(List.of("aaa", "Aaa", "Bbb"), analyze(tokenizer, stream, "aaa Aaa Bbb ccc"));
+        wordSet.close();
+    }
+
+    @Test
+    public void testOf() {
+        final ReloadableWordSet wordSet = ReloadableWordSet.of(file, false, 60_000L);
+        assertSame(wordSet, ReloadableWordSet.of(tempDir.resolve(".").resolve("words.txt"), false, 60_000L));
+        assertNotSame(wordSet, ReloadableWordSet.of(file, true, 60_000L));
+        assertNotSame(wordSet, ReloadableWordSet.of(file, false, 1_000L));
+    }
+
+    @Test
+    public void testKeywordMarkerFilter() throws Exception {
+        final ReloadableWordSet wordSet = new ReloadableWordSet(file, false, 60_000L);
+        final Tokenizer tokenizer = new WhitespaceTokenizer();
+        final TokenStream stream = new WordSetKeywordMarkerFilter(tokenizer, wordSet);
+        assertEquals(List.of("aaa"), keywords(tokenizer, stream, "aaa Aaa ccc"));
+
+        Files.writeString(file, "ccc\n");
+        wordSet.reload();
+        assertEquals(List.of("ccc"), keywords(tokenizer, stream, "aaa Aaa ccc"));
+        wordSet.close();
+    }
+
+    private static List<String> keywords(final Tokenizer tokenizer, final TokenStream stream, final String text) throws Exception {
+        final List<String> terms = new ArrayList<>();
+        tokenizer.setReader(new StringReader(text));
+        final CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+        final KeywordAttribute keywordAtt = stream.addAttribute(KeywordAttribute.class);
+        stream.reset();
+        while (stream.incrementToken()) {
+            if (keywordAtt.isKeyword()) {
+                terms.add(termAtt.toString());
+            }
+        }
+        stream.end();
+        stream.close();
+        return terms;
+    }
+
+    private static List<String> analyze(final Tokenizer tokenizer, final TokenStream stream, final String text) throws Exception {
+        final List<String> terms = new ArrayList<>();
+        tokenizer.setReader(new StringReader(text));
+        final CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+        stream.reset();
+        while (stream.incrementToken()) {
+            terms.add(termAtt.toString());
+        }
+        stream.end();
+        stream.close();
+        return terms;
+    }
+}
@@ -0,0 +1,141 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.junit.Test;
+
+public class StopwordTrieTest {
+
+    private static boolean matches(final StopwordTrie trie, final String term) {
+        return trie.matches(term.toCharArray(), term.length());
+    }
+
+    @Test
+    public void testPrefix() {
+        final StopwordTrie trie = new StopwordTrie(List.of("bbb", "ddd", "東京", "𠮷野"), false, false);
+        assertTrue(matches(trie, "bbb"));
+        assertTrue(matches(trie, "bbba"));
+        assertFalse(matches(trie, "abbb"));
+        assertFalse(matches(trie, "bb"));
+        assertFalse(matches(trie, "BBB"));
+        assertTrue(matches(trie, "東京都"));
+        assertFalse(matches(trie, "京都"));
+        assertTrue(matches(trie, "𠮷野家"));
+        assertFalse(matches(trie, "𠮷"));
+        assertFalse(matches(trie, ""));
+    }
+
+    @Test
+    public void testSuffix() {
+        final StopwordTrie trie = new StopwordTrie(List.of("bbb", "ddd", "東京", "𠮷野"), true, false);
+        assertTrue(matches(trie, "bbb"));
+        assertTrue(matches(trie, "abbb"));
+        assertFalse(matches(trie, "bbba"));
+        assertTrue(matches(trie, "南東京"));
+        assertFalse(matches(trie, "東京都"));
+        assertTrue(matches(trie, "牛𠮷野"));
+        assertFalse(matches(trie, "野"));
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        final StopwordTrie prefixes = new StopwordTrie(List.of("Bbb"), false, true);
+        assertTrue(matches(prefixes, "BBBa"));
+        assertTrue(matches(prefixes, "bbba"));
+        assertFalse(matches(prefixes, "aBBB"));
+        final StopwordTrie suffixes = new StopwordTrie(List.of("Bbb"), true, true);
+        assertTrue(matches(suffixes, "aBBB"));
+        assertFalse(matches(suffixes, "BBBa"));
+    }
+
+    @Test
+    public void testSpecialCasing() {
+        // a capital sigma at the end of a word is lower-cased to a final sigma
+        final StopwordTrie suffixes = new StopwordTrie(List.of("ΟΣ"), true, true);
+        assertTrue(matches(suffixes, "ΛΟΓΟΣ"));
+        assertTrue(matches(suffixes, "λογος"));
+        assertFalse(matches(suffixes, "λογοσ"));
+        final StopwordTrie prefixes = new StopwordTrie(List.of("σο"), false, true);
+        assertTrue(matches(prefixes, "ΣΟΦΙΑ"));
+
+        // a capital I with dot above is lower-cased to an i and a combining dot above
+        final StopwordTrie dotted = new StopwordTrie(List.of("İst"), false, true);
+        assertTrue(matches(dotted, "İSTANBUL"));
+        assertFalse(matches(dotted, "istanbul"));
+        final StopwordTrie dotless = new StopwordTrie(List.of("ist"), false, true);
+        assertFalse(matches(dotless, "İSTANBUL"));
+        assertTrue(matches(dotless, "ISTANBUL"));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertFalse(matches(new StopwordTrie(List.of(), false, false), "aaa"));
+        assertTrue(matches(new StopwordTrie(List.of(""), false, false), "aaa"));
+        assertTrue(matches(new StopwordTrie(List.of(""), true, false), ""));
+    }
+
+    @Test
+    public void testRandom() {
+        final Random random = new Random(0);
+        final String alphabet = "abcABCあいうΣσςİIi";
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            words.add(randomString(random, alphabet, 1 + random.nextInt(4)));
+        }
+        for (final boolean ignoreCase : new boolean[] { false, true }) {
+            final StopwordTrie prefixes = new StopwordTrie(words, false, ignoreCase);
+            final StopwordTrie suffixes = new StopwordTrie(words, true, ignoreCase);
+            for (int i = 0; i < 2000; i++) {
+                final String term = randomString(random, alphabet, random.nextInt(8));
+                final String value = ignoreCase ? term.toLowerCase(Locale.ROOT) : term;
+                boolean prefix = false;
+                boolean suffix = false;
+                for (final String word : words) {
+                    final String stopword = ignoreCase ? word.toLowerCase(Locale.ROOT) : word;
+                    prefix |= value.startsWith(stopword);
+                    suffix |= value.endsWith(stopword);
+                }
+                assertEquals(term, prefix, matches(prefixes, term));
+                assertEquals(term, suffix, matches(suffixes, term));
+            }
+        }
+    }
+
+    private static String randomString(final Random random, final String alphabet, final int length) {
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            buf.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return buf.toString();
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        final Tokenizer tokenizer = new WhitespaceTokenizer();
+        tokenizer.setReader(new StringReader("aaa bbb ccc dddx eee"));
+        final List<String> terms = new ArrayList<>();
+        final List<Integer> increments = new ArrayList<>();
+        try (StopwordTrieFilter filter = new StopwordTrieFilter(tokenizer, new StopwordTrie(List.of("bbb", "ddd"), false, false))) {
+            final CharTermAttribute termAtt = filter.addAttribute(CharTermAttribute.class);
+            final PositionIncrementAttribute posIncAtt = filter.addAttribute(PositionIncrementAttribute.class);
+            filter.reset();
+            while (filter.incrementToken()) {
+                terms.add(termAtt.toString());
+                increments.add(posIncAtt.getPositionIncrement());
+            }
+            filter.end();
+        }
+        assertEquals(List.of("aaa", "ccc", "eee"), terms);
+        assertEquals(List.of(1, 2, 2), increments);
+    }
+}
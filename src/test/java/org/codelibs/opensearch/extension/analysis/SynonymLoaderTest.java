@@ -5,10 +5,16 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -174,4 +180,137 @@ public class SynonymLoaderTest {
 
         assertNotNull(loader.getSynonymMap());
     }
+
+    @Test
+    public void testSharedSynonymMap() throws IOException {
+        File synonymFile = new File(env.configDir().toFile(), "synonyms_shared.txt");
+        try (FileWriter writer = new FileWriter(synonymFile)) {
+            writer.write("PC,personal computer\n");
+        }
+
+        Settings settings = Settings.builder()
+                .put("synonyms_path", "synonyms_shared.txt")
+                .build();
+
+        SynonymLoader loader1 = new SynonymLoader(env, settings, true, true);
+        SynonymLoader loader2 = new SynonymLoader(env, settings, true, true);
+        SynonymLoader loader3 = new SynonymLoader(env, settings, false, true);
+        SynonymLoader loader4 = new SynonymLoader(env, settings, true, SynonymLoader.getAnalyzer(true));
+
+        assertNotNull(loader1.getSynonymMap());
+        assertSame(loader1.getSynonymMap(), loader2.getSynonymMap());
+        assertNotSame(loader1.getSynonymMap(), loader3.getSynonymMap());
+        assertNotSame(loader1.getSynonymMap(), loader4.getSynonymMap());
+
+        loader1.close();
+        loader2.close();
+        loader3.close();
+        loader4.close();
+    }
+
+    @Test
+    public void testBackgroundReload() throws Exception {
+        File synonymFile = new File(env.configDir().toFile(), "synonyms_reload.txt");
+        try (FileWriter writer = new FileWriter(synonymFile)) {
+            writer.write("PC,personal computer\n");
+        }
+
+        Settings settings = Settings.builder()
+                .put("synonyms_path", "synonyms_reload.txt")
+                .put("dynamic_reload", true)
+                .put("reload_interval", "100ms")
+                .build();
+
+        SynonymLoader loader = new SynonymLoader(env, settings, true, true);
+        SynonymMap initialMap = loader.getSynonymMap();
+        long initialModified = loader.getLastModified();
+        assertNotNull(initialMap);
+
+        try (FileWriter writer = new FileWriter(synonymFile)) {
+            writer.write("PC,personal computer\nlaptop,notebook\n");
+        }
+        assertTrue(synonymFile.setLastModified(initialModified + 10000));
+
+        for (int i = 0; i < 100 && !loader.isUpdate(initialModified); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(loader.isUpdate(initialModified));
+        assertNotSame(initialMap, loader.getSynonymMap());
+        assertEquals(initialModified + 10000, loader.getLastModified());
+
+        loader.close();
+        assertFalse(DictionaryWatcher.getInstance().isWatched(synonymFile.toPath()));
+    }
+
+    private List<String> terms(SynonymLoader loader, String input) throws IOException {
+        List<String> terms = new ArrayList<>();
+        try (NGramSynonymTokenizer tokenizer = new NGramSynonymTokenizer(1, NGramSynonymTokenizer.DEFAULT_DELIMITERS, true, true,
+                loader)) {
+            CharTermAttribute termAtt = tokenizer.addAttribute(CharTermAttribute.class);
+            tokenizer.setReader(new StringReader(input));
+            tokenizer.reset();
+            while (tokenizer.incrementToken()) {
+                terms.add(termAtt.toString());
+            }
+            tokenizer.end();
+        }
+        return terms;
+    }
+
+    @Test
+    public void testSynonymsDelta() throws Exception {
+        Files.write(env.configDir().resolve("synonyms_delta.txt"), "a,aaa\n-b,bb\n".getBytes(StandardCharsets.UTF_8));
+
+        Settings settings = Settings.builder()
+                .putList("synonyms", "a,aa", "b,bb", "c,cc")
+                .put("synonyms_delta_path", "synonyms_delta.txt")
+                .put("synonyms_delta_compaction_delay", "1h")
+                .build();
+
+        SynonymLoader loader = new SynonymLoader(env, settings, true, true);
+        assertTrue(loader.isReloadable());
+        SynonymOverlay overlay = loader.getSynonymOverlay();
+        assertNotNull(overlay);
+        assertSame(loader.getSynonymMap(), overlay.getBase());
+
+        List<String> expected = Arrays.asList("a", "aaa", "b", "c", "cc", "aa", "a");
+        assertEquals(expected, terms(loader, "a b c aa"));
+
+        loader.compact();
+        assertNull(loader.getSynonymOverlay());
+        assertNotSame(overlay.getBase(), loader.getSynonymMap());
+        assertEquals(expected, terms(loader, "a b c aa"));
+
+        loader.close();
+    }
+
+    @Test
+    public void testSynonymsDeltaReload() throws Exception {
+        File deltaFile = new File(env.configDir().toFile(), "synonyms_delta_reload.txt");
+        Settings settings = Settings.builder()
+                .putList("synonyms", "a,aa")
+                .put("synonyms_delta_path", "synonyms_delta_reload.txt")
+                .put("synonyms_delta_compaction_delay", "200ms")
+                .put("reload_interval", "100ms")
+                .build();
+
+        SynonymLoader loader = new SynonymLoader(env, settings, true, true);
+        SynonymMap base = loader.getSynonymMap();
+        assertNull(loader.getSynonymOverlay());
+
+        try (FileWriter writer = new FileWriter(deltaFile)) {
+            writer.write("x,xx\n");
+        }
+
+        for (int i = 0; i < 100 && loader.getSynonymMap() == base; i++) {
+            Thread.sleep(50);
+        }
+        // compacted after the delay
+        assertNotSame(base, loader.getSynonymMap());
+        assertNull(loader.getSynonymOverlay());
+        assertEquals(Arrays.asList("x", "xx", "a", "aa"), terms(loader, "x a"));
+
+        loader.close();
+        assertFalse(DictionaryWatcher.getInstance().isWatched(deltaFile.toPath()));
+    }
 }
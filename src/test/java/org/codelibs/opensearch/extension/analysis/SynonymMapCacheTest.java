@@ -0,0 +1,110 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.analysis.synonym.SolrSynonymParser;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.junit.Test;
+
+public class SynonymMapCacheTest {
+
+    private SynonymMap build(String rules, AtomicInteger counter) throws Exception {
+        counter.incrementAndGet();
+        SolrSynonymParser parser = new SolrSynonymParser(true, true, SynonymLoader.getAnalyzer(true));
+        parser.parse(new StringReader(rules));
+        return parser.build();
+    }
+
+    @Test
+    public void testShareSameKey() throws Exception {
+        SynonymMapCache cache = new SynonymMapCache();
+        AtomicInteger counter = new AtomicInteger();
+        Object owner1 = new Object();
+        Object owner2 = new Object();
+        RefCountedCache.Lease<SynonymMapCache.Key> lease1 = cache.newLease(owner1);
+        RefCountedCache.Lease<SynonymMapCache.Key> lease2 = cache.newLease(owner2);
+
+        String rules = "a,aa\nb,bb\n";
+        SynonymMapCache.Key key = new SynonymMapCache.Key("synonyms.txt", rules, "solr", true, true);
+        SynonymMap map1 = cache.acquire(lease1, key, () -> build(rules, counter));
+        SynonymMap map2 = cache.acquire(lease2, new SynonymMapCache.Key("synonyms.txt", rules, "solr", true, true),
+                () -> build(rules, counter));
+
+        assertSame(map1, map2);
+        assertEquals(1, counter.get());
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getRefCount(key));
+
+        lease1.close();
+        assertEquals(1, cache.getRefCount(key));
+        lease1.close();
+        assertEquals(1, cache.getRefCount(key));
+        lease2.close();
+        assertEquals(0, cache.getRefCount(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDifferentKeys() throws Exception {
+        SynonymMapCache cache = new SynonymMapCache();
+        AtomicInteger counter = new AtomicInteger();
+        Object owner = new Object();
+        String rules = "a,aa\n";
+
+        SynonymMap map1 = cache.acquire(cache.newLease(owner), new SynonymMapCache.Key("synonyms.txt", rules, "solr", true, true),
+                () -> build(rules, counter));
+        SynonymMap map2 = cache.acquire(cache.newLease(owner), new SynonymMapCache.Key("synonyms.txt", rules, "solr", false, true),
+                () -> build(rules, counter));
+        SynonymMap map3 = cache.acquire(cache.newLease(owner), new SynonymMapCache.Key("synonyms.txt", rules, "solr", true, false),
+                () -> build(rules, counter));
+        SynonymMap map4 = cache.acquire(cache.newLease(owner), new SynonymMapCache.Key("synonyms.txt", rules + "b,bb\n", "solr", true, true),
+                () -> build(rules, counter));
+        SynonymMap map5 = cache.acquire(cache.newLease(owner), new SynonymMapCache.Key("other.txt", rules, "solr", true, true),
+                () -> build(rules, counter));
+
+        assertNotSame(map1, map2);
+        assertNotSame(map1, map3);
+        assertNotSame(map1, map4);
+        assertNotSame(map1, map5);
+        assertEquals(5, counter.get());
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    public void testMoveLease() throws Exception {
+        SynonymMapCache cache = new SynonymMapCache();
+        AtomicInteger counter = new AtomicInteger();
+        RefCountedCache.Lease<SynonymMapCache.Key> lease = cache.newLease(new Object());
+
+        SynonymMapCache.Key key1 = new SynonymMapCache.Key("synonyms.txt", "a,aa\n", "solr", true, true);
+        SynonymMapCache.Key key2 = new SynonymMapCache.Key("synonyms.txt", "a,aaa\n", "solr", true, true);
+        cache.acquire(lease, key1, () -> build("a,aa\n", counter));
+        assertEquals(1, cache.getRefCount(key1));
+
+        cache.acquire(lease, key2, () -> build("a,aaa\n", counter));
+        assertEquals(0, cache.getRefCount(key1));
+        assertEquals(1, cache.getRefCount(key2));
+        assertEquals(1, cache.size());
+        assertSame(key2, lease.getKey());
+    }
+
+    @Test
+    public void testBuildFailure() throws Exception {
+        SynonymMapCache cache = new SynonymMapCache();
+        RefCountedCache.Lease<SynonymMapCache.Key> lease = cache.newLease(new Object());
+        SynonymMapCache.Key key = new SynonymMapCache.Key(null, "a,aa\n", "solr", true, true);
+        try {
+            cache.acquire(lease, key, () -> {
+                throw new IllegalStateException("test");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(0, cache.size());
+        assertNull(lease.getKey());
+    }
+}
@@ -0,0 +1,204 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.index.CorruptIndexException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+
+public class SynonymMapCompilerTest {
+
+    private static final String RULES = "PC,personal computer\nlaptop,notebook\nＡＢ,エービー\nusa => united states\n";
+
+    private Environment env;
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("test");
+        Settings settings = Settings.builder()
+                .put("path.home", tempDir.toString())
+                .build();
+        env = new Environment(settings, tempDir.resolve("config"));
+        Files.createDirectories(env.configDir());
+        Files.write(env.configDir().resolve("synonyms.txt"), RULES.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private void compile(String... options) throws IOException {
+        String[] args = new String[options.length + 2];
+        System.arraycopy(options, 0, args, 0, options.length);
+        args[options.length] = env.configDir().resolve("synonyms.txt").toString();
+        args[options.length + 1] = env.configDir().resolve("synonyms.bin").toString();
+        SynonymMapCompiler.main(args);
+    }
+
+    private List<String> tokens(SynonymLoader loader, String input) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (NGramSynonymTokenizer tokenizer = new NGramSynonymTokenizer(2, NGramSynonymTokenizer.DEFAULT_DELIMITERS, true, true,
+                loader)) {
+            CharTermAttribute termAtt = tokenizer.addAttribute(CharTermAttribute.class);
+            OffsetAttribute offsetAtt = tokenizer.addAttribute(OffsetAttribute.class);
+            PositionIncrementAttribute posIncAtt = tokenizer.addAttribute(PositionIncrementAttribute.class);
+            tokenizer.setReader(new StringReader(input));
+            tokenizer.reset();
+            while (tokenizer.incrementToken()) {
+                tokens.add(termAtt.toString() + "," + offsetAtt.startOffset() + "," + offsetAtt.endOffset() + ","
+                        + posIncAtt.getPositionIncrement());
+            }
+            tokenizer.end();
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testCompiledSameAsText() throws Exception {
+        compile("--ignore_case=true");
+
+        SynonymLoader textLoader = new SynonymLoader(env, Settings.builder().put("synonyms_path", "synonyms.txt").build(), true, true);
+        SynonymLoader compiledLoader = new SynonymLoader(env,
+                Settings.builder().put("synonyms_path", "synonyms.bin").put("synonyms_format", "compiled").build(), true, true);
+
+        SynonymMap textMap = textLoader.getSynonymMap();
+        SynonymMap compiledMap = compiledLoader.getSynonymMap();
+        assertNotNull(compiledMap);
+        assertEquals(textMap.words.size(), compiledMap.words.size());
+        assertEquals(textMap.maxHorizontalContext, compiledMap.maxHorizontalContext);
+
+        for (String input : new String[] { "I have a PC and a laptop", "ＡＢＣの本", "usa 日本語", "no synonyms here" }) {
+            assertEquals(input, tokens(textLoader, input), tokens(compiledLoader, input));
+        }
+
+        textLoader.close();
+        compiledLoader.close();
+    }
+
+    @Test
+    public void testOptionMismatch() throws Exception {
+        compile("--ignore_case=true", "--expand=false");
+
+        Settings settings = Settings.builder().put("synonyms_path", "synonyms.bin").put("synonyms_format", "compiled").build();
+        try {
+            new SynonymLoader(env, settings, true, true);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getCause().getMessage().contains("expand"));
+        }
+        try {
+            new SynonymLoader(env, settings, false, false);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getCause().getMessage().contains("ignore_case"));
+        }
+        SynonymLoader loader = new SynonymLoader(env, settings, false, true);
+        assertNotNull(loader.getSynonymMap());
+        loader.close();
+    }
+
+    @Test
+    public void testCorruptedFile() throws Exception {
+        compile("--ignore_case=true");
+        try (RandomAccessFile file = new RandomAccessFile(env.configDir().resolve("synonyms.bin").toFile(), "rw")) {
+            file.seek(file.length() / 2);
+            int b = file.read();
+            file.seek(file.length() / 2);
+            file.write(b ^ 0xff);
+        }
+
+        try {
+            new SynonymLoader(env, Settings.builder().put("synonyms_path", "synonyms.bin").put("synonyms_format", "compiled").build(),
+                    true, true);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testVerify() throws Exception {
+        compile("--ignore_case=true");
+        Path file = env.configDir().resolve("synonyms.bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() / 2);
+            int b = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(b ^ 0xff);
+        }
+
+        // only the header and the footer are checked without verify
+        assertNotNull(SynonymMapCompiler.load(file, true, true, false));
+        try {
+            SynonymMapCompiler.load(file, true, true, true);
+            fail();
+        } catch (CorruptIndexException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTruncatedFile() throws Exception {
+        compile("--ignore_case=true");
+        Path file = env.configDir().resolve("synonyms.bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 8);
+        }
+
+        try {
+            SynonymMapCompiler.load(file, true, true, false);
+            fail();
+        } catch (CorruptIndexException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReloadCompiled() throws Exception {
+        compile("--ignore_case=true");
+        Settings settings = Settings.builder()
+                .put("synonyms_path", "synonyms.bin")
+                .put("synonyms_format", "compiled")
+                .put("dynamic_reload", true)
+                .put("reload_interval", "100ms")
+                .build();
+        SynonymLoader loader = new SynonymLoader(env, settings, true, true);
+        assertTrue(loader.isReloadable());
+        SynonymMap initialMap = loader.getSynonymMap();
+        long initialModified = loader.getLastModified();
+
+        Files.write(env.configDir().resolve("synonyms.txt"), (RULES + "tv,television\n").getBytes(StandardCharsets.UTF_8));
+        compile("--ignore_case=true");
+        assertTrue(env.configDir().resolve("synonyms.bin").toFile().setLastModified(initialModified + 10000));
+
+        for (int i = 0; i < 100 && !loader.isUpdate(initialModified); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(loader.isUpdate(initialModified));
+        assertNotSame(initialMap, loader.getSynonymMap());
+        assertEquals(initialMap.words.size() + 2, loader.getSynonymMap().words.size());
+
+        loader.close();
+    }
+}
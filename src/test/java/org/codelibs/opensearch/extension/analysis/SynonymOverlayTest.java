@@ -0,0 +1,74 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.fst.IntsRefFSTEnum;
+import org.junit.Test;
+
+public class SynonymOverlayTest {
+
+    private static SynonymMap build(String rules) throws Exception {
+        return SynonymLoader.buildSynonymMap(rules, "solr", true, SynonymLoader.getAnalyzer(true));
+    }
+
+    private static List<String> dump(SynonymMap map) throws Exception {
+        List<String> entries = new ArrayList<>();
+        if (map.fst == null) {
+            return entries;
+        }
+        IntsRefFSTEnum<BytesRef> fstEnum = new IntsRefFSTEnum<>(map.fst);
+        IntsRefFSTEnum.InputOutput<BytesRef> entry;
+        BytesRef scratch = new BytesRef();
+        while ((entry = fstEnum.next()) != null) {
+            IntsRef input = entry.input;
+            StringBuilder sb = new StringBuilder(new String(input.ints, input.offset, input.length));
+            ByteArrayDataInput in = new ByteArrayDataInput(entry.output.bytes, entry.output.offset, entry.output.length);
+            int code = in.readVInt();
+            sb.append((code & 1) == 0 ? " +" : " =>");
+            for (int i = 0; i < code >>> 1; i++) {
+                map.words.get(in.readVInt(), scratch);
+                sb.append(' ').append(scratch.utf8ToString());
+            }
+            entries.add(sb.toString());
+        }
+        return entries;
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        SynonymMap base = build("a,aa\nb,bb\nc => cc\n");
+        SynonymMap added = build("a,aaa\n");
+        CharArraySet mask = new CharArraySet(Arrays.asList("a", "aaa", "b", "bb"), true);
+
+        SynonymOverlay overlay = new SynonymOverlay(base, added, mask);
+        assertSame(base, overlay.getBase());
+        assertSame(added, overlay.getMap());
+
+        assertEquals(Arrays.asList("a + aaa", "aa + a", "aaa + a", "c => cc"), dump(overlay.compact()));
+    }
+
+    @Test
+    public void testCompactWithoutBase() throws Exception {
+        SynonymMap added = build("x,xx\n");
+        SynonymOverlay overlay = new SynonymOverlay(null, added, new CharArraySet(Arrays.asList("x", "xx"), true));
+        assertNull(overlay.getBase());
+        assertEquals(dump(added), dump(overlay.compact()));
+    }
+
+    @Test
+    public void testCompactOnlyRemovals() throws Exception {
+        SynonymMap base = build("a,aa\n");
+        SynonymOverlay overlay = new SynonymOverlay(base, null, new CharArraySet(Arrays.asList("a", "aa"), true));
+        assertNull(overlay.getMap());
+        assertNull(overlay.compact().fst);
+    }
+}
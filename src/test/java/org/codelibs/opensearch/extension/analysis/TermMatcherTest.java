@@ -0,0 +1,118 @@
+package org.codelibs.opensearch.extension.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.junit.Test;
+
+public class TermMatcherTest {
+
+    private static boolean matches(final TermMatcher matcher, final String term) {
+        return matcher.matches(term.toCharArray(), term.length());
+    }
+
+    @Test
+    public void testCompile() {
+        assertTrue(TermMatcher.compile("昭和|平成") instanceof TermMatcher.WordSetMatcher);
+        assertTrue(TermMatcher.compile("a\\.b") instanceof TermMatcher.WordSetMatcher);
+        assertTrue(TermMatcher.compile("[0-9]+年") instanceof TermMatcher.AutomatonMatcher);
+        assertTrue(TermMatcher.compile(".*") instanceof TermMatcher.AutomatonMatcher);
+        assertTrue(TermMatcher.compile("(?:ab|c){2,3}[^x-z]?\\d") instanceof TermMatcher.AutomatonMatcher);
+        assertTrue(TermMatcher.compile("^abc$") instanceof TermMatcher.RegexMatcher);
+        assertTrue(TermMatcher.compile("\\w+") instanceof TermMatcher.RegexMatcher);
+        assertTrue(TermMatcher.compile("a+?") instanceof TermMatcher.RegexMatcher);
+        assertTrue(TermMatcher.compile("(?i)abc") instanceof TermMatcher.RegexMatcher);
+        assertTrue(TermMatcher.compile("[a-z&&[^b]]") instanceof TermMatcher.RegexMatcher);
+        assertTrue(TermMatcher.compile("(a)\\1") instanceof TermMatcher.RegexMatcher);
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void testInvalid() {
+        TermMatcher.compile("(abc");
+    }
+
+    @Test
+    public void testMatches() {
+        final TermMatcher era = TermMatcher.compile("昭和|平成");
+        assertTrue(matches(era, "昭和"));
+        assertTrue(matches(era, "平成"));
+        assertFalse(matches(era, "昭和元"));
+        assertFalse(matches(era, ""));
+
+        final TermMatcher year = TermMatcher.compile("[0-9]+年");
+        assertTrue(matches(year, "12年"));
+        assertFalse(matches(year, "年"));
+        assertFalse(matches(year, "12"));
+
+        final TermMatcher any = TermMatcher.compile(".*");
+        assertTrue(matches(any, ""));
+        assertTrue(matches(any, "𠮷野家"));
+        assertFalse(matches(any, "a\nb"));
+
+        final TermMatcher surrogates = TermMatcher.compile("[𠮷a]{2}");
+        assertTrue(matches(surrogates, "𠮷a"));
+        assertFalse(matches(surrogates, "𠮷"));
+    }
+
+    @Test
+    public void testRandom() {
+        final String[] regexes = { "a|bc|", "(a|b)*c", "[abc]+", "[^a]?b{1,2}", "(?:ab){2,}", "a.c", "[a-c&]\\d*", "\\|?[-b]",
+                "(a|)(b|c?)+", "[]a]", "(ab|a)(bc|c)", "1{0}a", "[\\]\\-a]+" };
+        final Random random = new Random(0);
+        final String alphabet = "abc1&-|]\n";
+        for (final String regex : regexes) {
+            final Pattern pattern = Pattern.compile(regex);
+            final TermMatcher matcher = TermMatcher.compile(regex);
+            for (int i = 0; i < 2000; i++) {
+                final StringBuilder buf = new StringBuilder();
+                final int length = random.nextInt(6);
+                for (int j = 0; j < length; j++) {
+                    buf.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                final String term = buf.toString();
+                assertEquals(regex + " " + term, pattern.matcher(term).matches(), matches(matcher, term));
+            }
+        }
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        final TermMatcher era = TermMatcher.compile("昭和|平成");
+        final TermMatcher year = TermMatcher.compile("[0-9]+年");
+        assertEquals(List.of("aaa", "昭和3年", "bbb"), analyze("aaa 昭和 3年 bbb", era, year));
+        // the token after a first match is not tested against the first pattern again
+        assertEquals(List.of("昭和", "平成", "12年"), analyze("昭和 平成 12年", era, year));
+        assertEquals(List.of("昭和", "平成", "12年", "平成12年"), analyze("昭和 平成 12年 平成 12年", era, year));
+        assertEquals(List.of("昭和", "10"), analyze("昭和 10", era, year));
+        assertEquals(List.of("平成"), analyze("平成", era, year));
+        assertEquals(List.of("平成", "12年"), analyze("平成 12年", null, null));
+    }
+
+    private static List<String> analyze(final String text, final TermMatcher matcher1, final TermMatcher matcher2) throws Exception {
+        final Tokenizer tokenizer = new WhitespaceTokenizer();
+        tokenizer.setReader(new StringReader(text));
+        final List<String> terms = new ArrayList<>();
+        try (PatternConcatenationFilter filter = new PatternConcatenationFilter(tokenizer, matcher1, matcher2)) {
+            final CharTermAttribute termAtt = filter.addAttribute(CharTermAttribute.class);
+            final OffsetAttribute offsetAtt = filter.addAttribute(OffsetAttribute.class);
+            filter.reset();
+            while (filter.incrementToken()) {
+                terms.add(termAtt.toString());
+                assertEquals(termAtt.length(),
+                        text.substring(offsetAtt.startOffset(), offsetAtt.endOffset()).replace(" ", "").length());
+            }
+            filter.end();
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,149 @@
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+
+public class JapaneseFusedFilterFactoryTest {
+
+    private static final String[] TEXTS = { "東京スカイツリーの最寄り駅はとうきょうスカイツリー駅です。",
+            "コピーとサーバーとプリンターを買いました", "二千十二年に三百二十五万円を払った", "これは、その本ではありません", "1 2 ３ 百 の 万", "" };
+
+    private Environment env;
+    private IndexSettings indexSettings;
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("test");
+
+        Settings settings = Settings.builder()
+                .put("path.home", tempDir.toString())
+                .put("index.version.created", org.opensearch.Version.CURRENT)
+                .build();
+        env = new Environment(settings, tempDir.resolve("config"));
+        Files.createDirectories(env.configDir());
+
+        IndexMetadata indexMetadata = IndexMetadata.builder("test")
+                .settings(Settings.builder()
+                        .put(settings)
+                        .put("index.version.created", org.opensearch.Version.CURRENT)
+                        .build())
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+        indexSettings = new IndexSettings(indexMetadata, settings);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static List<String> tokens(TokenStream stream) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offsetAtt = stream.addAttribute(OffsetAttribute.class);
+        PositionIncrementAttribute posIncAtt = stream.addAttribute(PositionIncrementAttribute.class);
+        stream.reset();
+        while (stream.incrementToken()) {
+            tokens.add(termAtt.toString() + "," + offsetAtt.startOffset() + "," + offsetAtt.endOffset() + ","
+                    + posIncAtt.getPositionIncrement());
+        }
+        stream.end();
+        tokens.add("end," + offsetAtt.endOffset() + "," + posIncAtt.getPositionIncrement());
+        stream.close();
+        return tokens;
+    }
+
+    private Tokenizer tokenizer(String text) {
+        Tokenizer tokenizer = new KuromojiTokenizerFactory(indexSettings, env, "tokenizer", Settings.EMPTY).create();
+        tokenizer.setReader(new StringReader(text));
+        return tokenizer;
+    }
+
+    private void assertSameAsChain(Settings settings) throws IOException {
+        KuromojiBaseFormFilterFactory baseForm = new KuromojiBaseFormFilterFactory(indexSettings, env, "baseform", settings);
+        KuromojiPartOfSpeechFilterFactory partOfSpeech = new KuromojiPartOfSpeechFilterFactory(indexSettings, env, "pos", settings);
+        KuromojiKatakanaStemmerFactory stemmer = new KuromojiKatakanaStemmerFactory(indexSettings, env, "stemmer", settings);
+        KuromojiNumberFilterFactory number = new KuromojiNumberFilterFactory(indexSettings, env, "number", settings);
+        JapaneseStopTokenFilterFactory stop = new JapaneseStopTokenFilterFactory(indexSettings, env, "stop", settings);
+        JapaneseFusedFilterFactory fused = new JapaneseFusedFilterFactory(indexSettings, env, "fused", settings);
+        boolean withNumber = settings.getAsBoolean("number", true);
+        for (String text : TEXTS) {
+            TokenStream chain = stemmer.create(partOfSpeech.create(baseForm.create(tokenizer(text))));
+            if (withNumber) {
+                chain = number.create(chain);
+            }
+            chain = stop.create(chain);
+            assertEquals(text, tokens(chain), tokens(fused.create(tokenizer(text))));
+        }
+    }
+
+    @Test
+    public void testDefaults() throws Exception {
+        assertSameAsChain(Settings.EMPTY);
+    }
+
+    @Test
+    public void testWithoutNumber() throws Exception {
+        assertSameAsChain(Settings.builder().put("number", false).build());
+        JapaneseFusedFilterFactory fused = new JapaneseFusedFilterFactory(indexSettings, env, "fused",
+                Settings.builder().put("number", false).build());
+        assertTrue(fused.create(tokenizer("")) instanceof JapaneseFusedFilter);
+    }
+
+    @Test
+    public void testSettings() throws Exception {
+        assertSameAsChain(Settings.builder()
+                .put("number", false)
+                .putList("stoptags", "助詞-格助詞-一般", "助動詞")
+                .putList("stopwords", "スカイツリ", "駅", "サーバ")
+                .put("minimum_length", 3)
+                .build());
+        assertSameAsChain(Settings.builder()
+                .putList("stopwords", "325", "百", "円")
+                .put("remove_trailing", false)
+                .put("minimum_length", 5)
+                .build());
+    }
+
+    @Test
+    public void testMatchSubtypes() throws Exception {
+        JapaneseFusedFilterFactory fused = new JapaneseFusedFilterFactory(indexSettings, env, "fused",
+                Settings.builder().put("number", false).putList("stoptags", "名詞").put("match_subtypes", true).putList("stopwords").build());
+        assertEquals(List.of("に,2,3,2", "行く,3,5,1", "た,5,6,1", "end,6,0"), tokens(fused.create(tokenizer("東京に行った"))));
+    }
+
+    @Test
+    public void testMinimumLength() throws Exception {
+        assertSameAsChain(Settings.builder().put("minimum_length", 1).build());
+        try {
+            new JapaneseFusedFilterFactory(indexSettings, env, "fused", Settings.builder().put("minimum_length", 0).build());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("minimumLength must be >=1", e.getMessage());
+        }
+    }
+}
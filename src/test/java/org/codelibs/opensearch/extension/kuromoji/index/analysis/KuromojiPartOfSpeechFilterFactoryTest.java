@@ -5,9 +5,14 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.ja.JapaneseTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -159,4 +164,30 @@ public class KuromojiPartOfSpeechFilterFactoryTest {
 
         assertNotNull(factory);
     }
+
+    @Test
+    public void testMatchSubtypes() throws IOException {
+        String text = "東京に行きたいのは私です";
+        List<String> all = analyze(Settings.builder().putList("stoptags").build(), text);
+        // exact tags do not cover the subtypes of the tokens
+        assertEquals(all, analyze(Settings.builder().putList("stoptags", "助詞").build(), text));
+        assertEquals(List.of("東京", "行き", "の", "私"),
+                analyze(Settings.builder().putList("stoptags", "助詞", "助動詞").put("match_subtypes", true).build(), text));
+    }
+
+    private List<String> analyze(Settings settings, String text) throws IOException {
+        KuromojiPartOfSpeechFilterFactory factory = new KuromojiPartOfSpeechFilterFactory(indexSettings, env, "test", settings);
+        JapaneseTokenizer tokenizer = new JapaneseTokenizer(null, true, JapaneseTokenizer.Mode.SEARCH);
+        tokenizer.setReader(new StringReader(text));
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = factory.create(tokenizer)) {
+            CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(termAtt.toString());
+            }
+            stream.end();
+        }
+        return terms;
+    }
 }
@@ -5,9 +5,13 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.ja.JapaneseTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -260,4 +264,46 @@ public class KuromojiTokenizerFactoryTest {
         // Should throw RuntimeException due to duplicate entries
         new KuromojiTokenizerFactory(indexSettings, env, "test", settings);
     }
+
+    private static List<String> tokens(Tokenizer tokenizer, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        CharTermAttribute termAtt = tokenizer.addAttribute(CharTermAttribute.class);
+        tokenizer.setReader(new StringReader(text));
+        tokenizer.reset();
+        while (tokenizer.incrementToken()) {
+            tokens.add(termAtt.toString());
+        }
+        tokenizer.end();
+        tokenizer.close();
+        return tokens;
+    }
+
+    @Test
+    public void testNBestExamples() throws IOException {
+        Settings settings = Settings.builder()
+                .put("nbest_examples", "/成田空港-成田/")
+                .build();
+
+        KuromojiTokenizerFactory factory = new KuromojiTokenizerFactory(
+                indexSettings, env, "test", settings);
+
+        List<String> tokens = tokens(factory.create(), "成田空港");
+        assertTrue(tokens.toString(), tokens.contains("成田"));
+        assertTrue(tokens.toString(), tokens.contains("成田空港"));
+        assertEquals(tokens, tokens(factory.create(), "成田空港"));
+    }
+
+    @Test
+    public void testConflictingOptions() {
+        assertConflict(Settings.builder().put("parallel_threshold", 1000).put("max_lattice_span", 100).build());
+    }
+
+    private void assertConflict(Settings settings) {
+        try {
+            new KuromojiTokenizerFactory(indexSettings, env, "test", settings);
+            fail("expected IllegalArgumentException for " + settings);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("cannot be combined with"));
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ja.tokenattributes.PartOfSpeechAttribute;
+import org.apache.lucene.analysis.ja.tokenattributes.ReadingAttribute;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+
+public class ParallelKuromojiTokenizerTest {
+
+    private static final String SENTENCES = "東京スカイツリーの最寄り駅はとうきょうスカイツリー駅です。"
+            + "関西国際空港に行きました！\n"
+            + "今日はいい天気ですね？"
+            + "𠮷野家で牛丼を食べた。";
+
+    private Environment env;
+    private IndexSettings indexSettings;
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("test");
+
+        Settings settings = Settings.builder()
+                .put("path.home", tempDir.toString())
+                .put("index.version.created", org.opensearch.Version.CURRENT)
+                .build();
+        env = new Environment(settings, tempDir.resolve("config"));
+        Files.createDirectories(env.configDir());
+
+        IndexMetadata indexMetadata = IndexMetadata.builder("test")
+                .settings(Settings.builder()
+                        .put(settings)
+                        .put("index.version.created", org.opensearch.Version.CURRENT)
+                        .build())
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+        indexSettings = new IndexSettings(indexMetadata, settings);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static List<String> tokens(Tokenizer tokenizer, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        CharTermAttribute termAtt = tokenizer.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offsetAtt = tokenizer.addAttribute(OffsetAttribute.class);
+        PositionIncrementAttribute posIncAtt = tokenizer.addAttribute(PositionIncrementAttribute.class);
+        PartOfSpeechAttribute posAtt = tokenizer.addAttribute(PartOfSpeechAttribute.class);
+        ReadingAttribute readingAtt = tokenizer.addAttribute(ReadingAttribute.class);
+        tokenizer.setReader(new StringReader(text));
+        tokenizer.reset();
+        while (tokenizer.incrementToken()) {
+            tokens.add(termAtt.toString() + "," + offsetAtt.startOffset() + "," + offsetAtt.endOffset() + ","
+                    + posIncAtt.getPositionIncrement() + "," + posAtt.getPartOfSpeech() + "," + readingAtt.getReading());
+        }
+        tokenizer.end();
+        tokens.add("end," + offsetAtt.endOffset());
+        tokenizer.close();
+        return tokens;
+    }
+
+    private KuromojiTokenizerFactory newFactory(Settings.Builder builder) {
+        return new KuromojiTokenizerFactory(indexSettings, env, "test", builder.put("mode", "search").build());
+    }
+
+    @Test
+    public void testSameAsSequential() throws Exception {
+        KuromojiTokenizerFactory sequential = newFactory(Settings.builder());
+        KuromojiTokenizerFactory parallel = newFactory(Settings.builder()
+                .put("parallel_threshold", 100)
+                .put("parallel_segment_size", 20));
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            sb.append(SENTENCES);
+        }
+        String text = sb.toString();
+
+        Tokenizer tokenizer = parallel.create();
+        assertTrue(tokenizer instanceof ParallelKuromojiTokenizer);
+        List<String> expected = tokens(sequential.create(), text);
+        assertEquals(expected, tokens(tokenizer, text));
+        // reused for a short input, tokenized on the calling thread
+        assertEquals(tokens(sequential.create(), SENTENCES), tokens(tokenizer, SENTENCES));
+        assertEquals(expected, tokens(tokenizer, text));
+        assertEquals(tokens(sequential.create(), ""), tokens(tokenizer, ""));
+    }
+
+    @Test
+    public void testCloseBeforeConsumed() throws Exception {
+        KuromojiTokenizerFactory parallel = newFactory(Settings.builder()
+                .put("parallel_threshold", 1)
+                .put("parallel_segment_size", 10));
+        KuromojiTokenizerFactory sequential = newFactory(Settings.builder());
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(SENTENCES);
+        }
+        Tokenizer tokenizer = parallel.create();
+        tokenizer.setReader(new StringReader(sb.toString()));
+        tokenizer.reset();
+        assertTrue(tokenizer.incrementToken());
+        tokenizer.close();
+
+        assertEquals(tokens(sequential.create(), SENTENCES), tokens(tokenizer, SENTENCES));
+    }
+
+    @Test
+    public void testFilterAttributesCleared() throws Exception {
+        for (int threshold : new int[] { 1, 1000 }) {
+            Tokenizer tokenizer = newFactory(Settings.builder().put("parallel_threshold", threshold)).create();
+            KeywordAttribute keywordAtt = tokenizer.addAttribute(KeywordAttribute.class);
+            tokenizer.setReader(new StringReader(SENTENCES));
+            tokenizer.reset();
+            int count = 0;
+            while (tokenizer.incrementToken()) {
+                assertFalse(keywordAtt.isKeyword());
+                keywordAtt.setKeyword(true);
+                count++;
+            }
+            tokenizer.end();
+            tokenizer.close();
+            assertTrue(count > 1);
+        }
+    }
+
+    @Test
+    public void testFindSegmentEnd() {
+        char[] chars = "あいう。えお\nかきくけこさしすせそ".toCharArray();
+        assertEquals(chars.length, ParallelKuromojiTokenizer.findSegmentEnd(chars, 0, chars.length, 100));
+        assertEquals(7, ParallelKuromojiTokenizer.findSegmentEnd(chars, 0, chars.length, 8));
+        assertEquals(4, ParallelKuromojiTokenizer.findSegmentEnd(chars, 0, chars.length, 5));
+        assertEquals(4, ParallelKuromojiTokenizer.findSegmentEnd(chars, 0, chars.length, 2));
+        assertEquals(chars.length, ParallelKuromojiTokenizer.findSegmentEnd(chars, 7, chars.length, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSegmentSize() {
+        newFactory(Settings.builder().put("parallel_threshold", 1).put("parallel_segment_size", 0));
+    }
+}
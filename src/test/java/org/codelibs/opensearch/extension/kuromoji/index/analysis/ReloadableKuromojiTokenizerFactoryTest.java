@@ -0,0 +1,194 @@
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ja.JapaneseTokenizer;
+import org.apache.lucene.analysis.ja.tokenattributes.PartOfSpeechAttribute;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+
+public class ReloadableKuromojiTokenizerFactoryTest {
+
+    private Environment env;
+    private IndexSettings indexSettings;
+    private Path tempDir;
+    private Path userDict;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("test");
+
+        Settings settings = Settings.builder()
+                .put("path.home", tempDir.toString())
+                .put("index.version.created", org.opensearch.Version.CURRENT)
+                .build();
+        env = new Environment(settings, tempDir.resolve("config"));
+        Files.createDirectories(env.configDir());
+
+        IndexMetadata indexMetadata = IndexMetadata.builder("test")
+                .settings(Settings.builder()
+                        .put(settings)
+                        .put("index.version.created", org.opensearch.Version.CURRENT)
+                        .build())
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+        indexSettings = new IndexSettings(indexMetadata, settings);
+
+        userDict = env.configDir().resolve("userdict_ja.txt");
+        Files.write(userDict, "東京スカイツリー,東京 スカイツリー,トウキョウ スカイツリー,カスタム名詞\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static List<String> tokens(TokenStream stream, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offsetAtt = stream.addAttribute(OffsetAttribute.class);
+        ((Tokenizer) stream).setReader(new StringReader(text));
+        stream.reset();
+        while (stream.incrementToken()) {
+            tokens.add(termAtt.toString() + "," + offsetAtt.startOffset() + "," + offsetAtt.endOffset());
+        }
+        stream.end();
+        assertEquals(text.length(), offsetAtt.endOffset());
+        stream.close();
+        return tokens;
+    }
+
+    private ReloadableKuromojiTokenizerFactory newFactory() {
+        Settings settings = Settings.builder()
+                .put("mode", "normal")
+                .put("user_dictionary", "userdict_ja.txt")
+                .put("reload_interval", "100ms")
+                .build();
+        return new ReloadableKuromojiTokenizerFactory(indexSettings, env, "test", settings);
+    }
+
+    @Test
+    public void testSameAsKuromojiTokenizer() throws Exception {
+        ReloadableKuromojiTokenizerFactory factory = newFactory();
+        KuromojiTokenizerFactory baseFactory = new KuromojiTokenizerFactory(indexSettings, env, "test",
+                Settings.builder().put("mode", "normal").put("user_dictionary", "userdict_ja.txt").build());
+        assertTrue(factory.isReloadable());
+
+        Tokenizer tokenizer = factory.create();
+        assertTrue(tokenizer instanceof ReloadableKuromojiTokenizer);
+        for (String text : new String[] { "東京スカイツリーの最寄り駅はとうきょうスカイツリー駅です", "関西国際空港", "" }) {
+            Tokenizer expected = baseFactory.create();
+            assertTrue(expected instanceof JapaneseTokenizer);
+            assertEquals(text, tokens(expected, text), tokens(tokenizer, text));
+        }
+    }
+
+    @Test
+    public void testReloadAtReset() throws Exception {
+        ReloadableKuromojiTokenizerFactory factory = newFactory();
+        ReloadableKuromojiTokenizer tokenizer = (ReloadableKuromojiTokenizer) factory.create();
+        PartOfSpeechAttribute posAtt = tokenizer.addAttribute(PartOfSpeechAttribute.class);
+
+        assertEquals(List.of("東京,0,2", "スカイツリー,2,8"), tokens(tokenizer, "東京スカイツリー"));
+
+        Files.write(userDict, "東京スカイツリー,東京スカイツリー,トウキョウスカイツリー,カスタム名詞\n".getBytes(StandardCharsets.UTF_8));
+        factory.reload();
+
+        assertEquals(List.of("東京スカイツリー,0,8"), tokens(tokenizer, "東京スカイツリー"));
+        assertSame(factory.getUserDictionary(), tokenizer.getCurrentUserDictionary());
+
+        tokenizer.setReader(new StringReader("東京スカイツリー"));
+        tokenizer.reset();
+        assertTrue(tokenizer.incrementToken());
+        assertEquals("カスタム名詞", posAtt.getPartOfSpeech());
+        tokenizer.end();
+        tokenizer.close();
+    }
+
+    @Test
+    public void testReloadOnFileChange() throws Exception {
+        ReloadableKuromojiTokenizerFactory factory = newFactory();
+        Tokenizer tokenizer = factory.create();
+        Object initial = factory.getUserDictionary();
+
+        Files.write(userDict, "東京スカイツリー,東京スカイツリー,トウキョウスカイツリー,カスタム名詞\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(userDict.toFile().setLastModified(System.currentTimeMillis() + 10000));
+        for (int i = 0; i < 100 && factory.getUserDictionary() == initial; i++) {
+            Thread.sleep(50);
+        }
+        assertNotSame(initial, factory.getUserDictionary());
+        assertEquals(List.of("東京スカイツリー,0,8"), tokens(tokenizer, "東京スカイツリー"));
+    }
+
+    @Test
+    public void testInvalidReloadKeepsDictionary() throws Exception {
+        ReloadableKuromojiTokenizerFactory factory = newFactory();
+        Object initial = factory.getUserDictionary();
+
+        Files.write(userDict, "a,a,a,a\na,a,a,a\n".getBytes(StandardCharsets.UTF_8));
+        factory.reload();
+        assertSame(initial, factory.getUserDictionary());
+    }
+
+    @Test
+    public void testFilterAttributesCleared() throws Exception {
+        ReloadableKuromojiTokenizerFactory factory = newFactory();
+        Tokenizer tokenizer = factory.create();
+        KeywordAttribute keywordAtt = tokenizer.addAttribute(KeywordAttribute.class);
+        CharTermAttribute termAtt = tokenizer.addAttribute(CharTermAttribute.class);
+
+        tokenizer.setReader(new StringReader("東京スカイツリー"));
+        tokenizer.reset();
+        int count = 0;
+        while (tokenizer.incrementToken()) {
+            assertFalse(termAtt.toString(), keywordAtt.isKeyword());
+            keywordAtt.setKeyword(true);
+            count++;
+        }
+        tokenizer.end();
+        tokenizer.close();
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void testInlineRulesNotReloadable() throws Exception {
+        ReloadableKuromojiTokenizerFactory factory = new ReloadableKuromojiTokenizerFactory(indexSettings, env, "test",
+                Settings.builder().putList("user_dictionary_rules", "東京スカイツリー,東京スカイツリー,トウキョウスカイツリー,カスタム名詞").build());
+        assertFalse(factory.isReloadable());
+        assertEquals(List.of("東京スカイツリー,0,8"), tokens(factory.create(), "東京スカイツリー"));
+    }
+
+    @Test
+    public void testUnsupportedOptions() {
+        for (String option : new String[] { "parallel_threshold", "max_lattice_span" }) {
+            try {
+                new ReloadableKuromojiTokenizerFactory(indexSettings, env, "test", Settings.builder().put(option, 100).build());
+                fail("expected IllegalArgumentException for " + option);
+            } catch (IllegalArgumentException e) {
+                assertEquals(option + " is not supported by reloadable_kuromoji", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+
+public class StreamingKuromojiTokenizerTest {
+
+    private static final String SENTENCES = "東京スカイツリーの最寄り駅はとうきょうスカイツリー駅です。"
+            + "関西国際空港に行きました！\n"
+            + "今日はいい天気ですね？"
+            + "𠮷野家で牛丼を食べた。";
+
+    private Environment env;
+    private IndexSettings indexSettings;
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("test");
+
+        Settings settings = Settings.builder()
+                .put("path.home", tempDir.toString())
+                .put("index.version.created", org.opensearch.Version.CURRENT)
+                .build();
+        env = new Environment(settings, tempDir.resolve("config"));
+        Files.createDirectories(env.configDir());
+
+        IndexMetadata indexMetadata = IndexMetadata.builder("test")
+                .settings(Settings.builder()
+                        .put(settings)
+                        .put("index.version.created", org.opensearch.Version.CURRENT)
+                        .build())
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+        indexSettings = new IndexSettings(indexMetadata, settings);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static List<String> tokens(Tokenizer tokenizer, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        CharTermAttribute termAtt = tokenizer.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offsetAtt = tokenizer.addAttribute(OffsetAttribute.class);
+        PositionIncrementAttribute posIncAtt = tokenizer.addAttribute(PositionIncrementAttribute.class);
+        tokenizer.setReader(new StringReader(text));
+        tokenizer.reset();
+        while (tokenizer.incrementToken()) {
+            assertEquals(termAtt.toString(), text.substring(offsetAtt.startOffset(), offsetAtt.endOffset()));
+            tokens.add(termAtt.toString() + "," + offsetAtt.startOffset() + "," + offsetAtt.endOffset() + ","
+                    + posIncAtt.getPositionIncrement());
+        }
+        tokenizer.end();
+        tokens.add("end," + offsetAtt.endOffset());
+        tokenizer.close();
+        return tokens;
+    }
+
+    private KuromojiTokenizerFactory newFactory(Settings.Builder builder) {
+        return new KuromojiTokenizerFactory(indexSettings, env, "test", builder.put("discard_punctuation", false).build());
+    }
+
+    @Test
+    public void testSameAsSequential() throws Exception {
+        KuromojiTokenizerFactory sequential = newFactory(Settings.builder());
+        KuromojiTokenizerFactory streaming = newFactory(Settings.builder().put("max_lattice_span", 64));
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            sb.append(SENTENCES);
+        }
+        String text = sb.toString();
+
+        Tokenizer tokenizer = streaming.create();
+        assertTrue(tokenizer instanceof StreamingKuromojiTokenizer);
+        assertEquals(tokens(sequential.create(), text), tokens(tokenizer, text));
+        assertEquals(tokens(sequential.create(), SENTENCES), tokens(tokenizer, SENTENCES));
+        assertEquals(List.of("end,0"), tokens(tokenizer, ""));
+    }
+
+    @Test
+    public void testLongRunWithoutPunctuation() throws Exception {
+        Tokenizer tokenizer = newFactory(Settings.builder().put("max_lattice_span", 100)).create();
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            sb.append(i % 7 == 0 ? "𠮷" : "ア");
+        }
+        String text = sb.toString();
+
+        List<String> tokens = tokens(tokenizer, text);
+        StringBuilder joined = new StringBuilder();
+        for (String token : tokens.subList(0, tokens.size() - 1)) {
+            joined.append(token, 0, token.indexOf(','));
+        }
+        assertEquals(text, joined.toString());
+        assertEquals("end," + text.length(), tokens.get(tokens.size() - 1));
+    }
+
+    @Test
+    public void testFindChunkEnd() {
+        assertEquals(5, StreamingKuromojiTokenizer.findChunkEnd("あいうえ。おかき".toCharArray(), 8));
+        assertEquals(5, StreamingKuromojiTokenizer.findChunkEnd("あいうえおカキク".toCharArray(), 8));
+        assertEquals(4, StreamingKuromojiTokenizer.findChunkEnd("あい東京タワー".toCharArray(), 7));
+        assertEquals(8, StreamingKuromojiTokenizer.findChunkEnd("ああああああああ".toCharArray(), 8));
+        char[] chars = "ああああああ𠮷".toCharArray();
+        assertEquals(6, StreamingKuromojiTokenizer.findChunkEnd(chars, 7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSpan() {
+        newFactory(Settings.builder().put("max_lattice_span", 1));
+    }
+}
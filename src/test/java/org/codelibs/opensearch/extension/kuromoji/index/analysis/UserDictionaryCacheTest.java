@@ -0,0 +1,155 @@
+package org.codelibs.opensearch.extension.kuromoji.index.analysis;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.lucene.analysis.ja.JapaneseCompletionAnalyzer;
+import org.apache.lucene.analysis.ja.dict.UserDictionary;
+import org.codelibs.opensearch.extension.analysis.Digests;
+import org.codelibs.opensearch.extension.analysis.RefCountedCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.Version;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+
+public class UserDictionaryCacheTest {
+
+    private static final String RULES = "東京スカイツリー,東京 スカイツリー,トウキョウ スカイツリー,カスタム名詞\n";
+
+    private Environment env;
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("test");
+        Settings settings = Settings.builder()
+                .put("path.home", tempDir.toString())
+                .build();
+        env = new Environment(settings, tempDir.resolve("config"));
+        Files.createDirectories(env.configDir());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private UserDictionary load(Settings settings, Object owner) {
+        return KuromojiTokenizerFactory.loadUserDictionary(env, settings, UserDictionaryCache.getInstance().newLease(owner));
+    }
+
+    @Test
+    public void testSharedByContent() throws Exception {
+        Files.write(env.configDir().resolve("userdict1.txt"), RULES.getBytes(StandardCharsets.UTF_8));
+        Files.write(env.configDir().resolve("userdict2.txt"), RULES.getBytes(StandardCharsets.UTF_8));
+
+        Object owner1 = new Object();
+        Object owner2 = new Object();
+        UserDictionary dict1 = load(
+                Settings.builder().put("user_dictionary", "userdict1.txt").build(), owner1);
+        UserDictionary dict2 = load(
+                Settings.builder().put("user_dictionary", "userdict2.txt").build(), owner2);
+        assertNotNull(dict1);
+        assertSame(dict1, dict2);
+
+        UserDictionary dict3 = load(
+                Settings.builder().putList("user_dictionary_rules", "関西国際空港,関西 国際 空港,カンサイ コクサイ クウコウ,カスタム名詞").build(),
+                new Object());
+        assertNotSame(dict1, dict3);
+
+        assertNull(load( Settings.EMPTY, new Object()));
+    }
+
+    @Test
+    public void testReferenceCount() throws Exception {
+        UserDictionaryCache cache = new UserDictionaryCache();
+        RefCountedCache.Lease<String> lease1 = cache.newLease(new Object());
+        RefCountedCache.Lease<String> lease2 = cache.newLease(new Object());
+
+        UserDictionary dict1 = cache.acquire(lease1, RULES);
+        UserDictionary dict2 = cache.acquire(lease2, RULES);
+        assertSame(dict1, dict2);
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getRefCount(Digests.sha256Hex(RULES)));
+
+        lease1.close();
+        assertEquals(1, cache.getRefCount(Digests.sha256Hex(RULES)));
+        lease1.close();
+        assertEquals(1, cache.getRefCount(Digests.sha256Hex(RULES)));
+
+        // moving a lease to other rules releases the previous entry
+        String otherRules = "関西国際空港,関西 国際 空港,カンサイ コクサイ クウコウ,カスタム名詞\n";
+        assertNotSame(dict2, cache.acquire(lease2, otherRules));
+        assertEquals(0, cache.getRefCount(Digests.sha256Hex(RULES)));
+        assertEquals(1, cache.size());
+
+        lease2.close();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testReleasedWhenOwnerCollected() throws Exception {
+        UserDictionaryCache cache = new UserDictionaryCache();
+        cache.acquire(cache.newLease(new Object()), RULES);
+        assertEquals(1, cache.size());
+        for (int i = 0; i < 100 && cache.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMoveTo() throws Exception {
+        UserDictionaryCache cache = new UserDictionaryCache();
+        Object owner = new Object();
+        RefCountedCache.Lease<String> lease = cache.newLease(new Object()).moveTo(owner);
+        assertNull(lease.getKey());
+        lease = cache.newLease(new Object());
+        cache.acquire(lease, RULES);
+        RefCountedCache.Lease<String> moved = lease.moveTo(owner);
+        assertNull(lease.getKey());
+        assertEquals(Digests.sha256Hex(RULES), moved.getKey());
+        assertEquals(1, cache.getRefCount(Digests.sha256Hex(RULES)));
+        lease = null;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertEquals(1, cache.getRefCount(Digests.sha256Hex(RULES)));
+        moved.close();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testHeldByAnalyzer() throws Exception {
+        Files.write(env.configDir().resolve("userdict.txt"), RULES.getBytes(StandardCharsets.UTF_8));
+        Settings indexSettings = Settings.builder()
+                .put("path.home", tempDir.toString())
+                .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                .build();
+        IndexMetadata metadata = IndexMetadata.builder("test").settings(indexSettings).numberOfShards(1).numberOfReplicas(0).build();
+        JapaneseCompletionAnalyzer analyzer = new KuromojiCompletionAnalyzerProvider(new IndexSettings(metadata, indexSettings), env,
+                "test", Settings.builder().put("user_dictionary", "userdict.txt").build()).get();
+        String key = Digests.sha256Hex(RULES);
+        assertTrue(UserDictionaryCache.getInstance().getRefCount(key) > 0);
+        // the provider is unreachable now
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertTrue(UserDictionaryCache.getInstance().getRefCount(key) > 0);
+        Reference.reachabilityFence(analyzer);
+    }
+}
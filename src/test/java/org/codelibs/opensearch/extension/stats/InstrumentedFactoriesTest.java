@@ -0,0 +1,291 @@
+package org.codelibs.opensearch.extension.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiIterationMarkCharFilterFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.Version;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.xcontent.json.JsonXContent;
+import org.opensearch.core.index.Index;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.analysis.CharFilterFactory;
+import org.opensearch.index.analysis.NormalizingCharFilterFactory;
+import org.opensearch.index.analysis.TokenFilterFactory;
+import org.opensearch.index.analysis.TokenizerFactory;
+import org.opensearch.indices.analysis.AnalysisModule.AnalysisProvider;
+
+public class InstrumentedFactoriesTest {
+
+    private static final String INDEX = "instrumented_factories_test";
+
+    private final Map<String, AnalysisProvider<TokenizerFactory>> tokenizers = InstrumentedFactories.tokenizers(
+            Map.of("whitespace", (indexSettings, env, name, settings) -> TokenizerFactory.newFactory(name, WhitespaceTokenizer::new)));
+
+    private final Map<String, AnalysisProvider<TokenFilterFactory>> tokenFilters =
+            InstrumentedFactories.tokenFilters(Map.of("lowercase", (indexSettings, env, name, settings) -> new TokenFilterFactory() {
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public TokenStream create(final TokenStream tokenStream) {
+                    return new LowerCaseFilter(tokenStream);
+                }
+            }));
+
+    private final Map<String, AnalysisProvider<CharFilterFactory>> charFilters =
+            InstrumentedFactories.charFilters(Map.of("iteration_mark", KuromojiIterationMarkCharFilterFactory::new));
+
+    private Index index;
+
+    private Path tempDir;
+
+    private Environment env;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("instrumented_factories_test");
+        env = new Environment(Settings.builder().put("path.home", tempDir.toString()).build(), null);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (index != null) {
+            AnalysisStats.getInstance().removeIndex(index);
+        }
+        if (tempDir != null && Files.exists(tempDir)) {
+            Files.walk(tempDir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void test_disabled() throws Exception {
+        final IndexSettings indexSettings = createIndexSettings(false);
+
+        final TokenizerFactory tokenizerFactory = tokenizers.get("whitespace").get(indexSettings, env, "ws", Settings.EMPTY);
+        assertFalse(tokenizerFactory.create() instanceof InstrumentedTokenizer);
+        final TokenFilterFactory tokenFilterFactory = tokenFilters.get("lowercase").get(indexSettings, env, "lc", Settings.EMPTY);
+        assertFalse(tokenFilterFactory.create(tokenizerFactory.create()) instanceof InstrumentedTokenFilter);
+        final CharFilterFactory charFilterFactory = charFilters.get("iteration_mark").get(indexSettings, env, "im", Settings.EMPTY);
+        assertFalse(charFilterFactory.create(new StringReader("")) instanceof InstrumentedCharFilter);
+
+        assertEquals("{\"indices\":{}}", toJson(INDEX));
+    }
+
+    @Test
+    public void test_enabled() throws Exception {
+        final IndexSettings indexSettings = createIndexSettings(true);
+
+        final TokenizerFactory tokenizerFactory = tokenizers.get("whitespace").get(indexSettings, env, "ws", Settings.EMPTY);
+        final TokenFilterFactory tokenFilterFactory = tokenFilters.get("lowercase").get(indexSettings, env, "lc", Settings.EMPTY);
+        final CharFilterFactory charFilterFactory = charFilters.get("iteration_mark").get(indexSettings, env, "im", Settings.EMPTY);
+        assertEquals("ws", tokenizerFactory.name());
+        assertEquals("lc", tokenFilterFactory.name());
+        assertTrue(charFilterFactory instanceof NormalizingCharFilterFactory);
+
+        final Tokenizer tokenizer = tokenizerFactory.create();
+        final TokenStream stream = tokenFilterFactory.create(tokenizer);
+        final List<String> terms = new ArrayList<>();
+        final List<String> offsets = new ArrayList<>();
+        for (final String text : new String[] { "Foo Bar", "時々 Baz" }) {
+            final Reader reader = charFilterFactory.create(new StringReader(text));
+            tokenizer.setReader(reader);
+            final CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+            final OffsetAttribute offsetAtt = stream.addAttribute(OffsetAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(termAtt.toString());
+                offsets.add(offsetAtt.startOffset() + "-" + offsetAtt.endOffset());
+            }
+            stream.end();
+            stream.close();
+        }
+        assertEquals(List.of("foo", "bar", "時時", "baz"), terms);
+        assertEquals(List.of("0-3", "4-7", "0-2", "3-6"), offsets);
+
+        final AnalysisStats analysisStats = AnalysisStats.getInstance();
+        final ComponentStats tokenizerStats = analysisStats.getComponentStats(index, AnalysisStats.TOKENIZER, "ws", "whitespace");
+        assertEquals("whitespace", tokenizerStats.getType());
+        assertEquals(2, tokenizerStats.getStreams());
+        assertEquals(4, tokenizerStats.getTokens());
+        assertEquals(11, tokenizerStats.getChars());
+        assertEquals(1, tokenizerStats.getTimedStreams());
+        assertTrue(tokenizerStats.getNanos() >= 0);
+        assertTrue(tokenizerStats.getMaxStreamNanos() <= tokenizerStats.getNanos());
+
+        final ComponentStats filterStats = analysisStats.getComponentStats(index, AnalysisStats.TOKEN_FILTER, "lc", "lowercase");
+        assertEquals(2, filterStats.getStreams());
+        assertEquals(4, filterStats.getTokens());
+        assertEquals(11, filterStats.getChars());
+        assertEquals(1, filterStats.getTimedStreams());
+        assertTrue(filterStats.getNanos() >= 0);
+
+        final ComponentStats charFilterStats =
+                analysisStats.getComponentStats(index, AnalysisStats.CHAR_FILTER, "im", "iteration_mark");
+        assertEquals(2, charFilterStats.getStreams());
+        assertEquals(0, charFilterStats.getTokens());
+        assertEquals(13, charFilterStats.getChars());
+        assertEquals(1, charFilterStats.getTimedStreams());
+
+        assertFalse(toJson(INDEX).contains(INDEX));
+        analysisStats.registerIndex(index);
+        final String json = toJson(INDEX);
+        assertTrue(json, json.contains("\"" + INDEX + "\":{\"char_filter\":{\"im\":{\"type\":\"iteration_mark\",\"streams\":2,"));
+        assertTrue(json, json.contains("\"token_filter\":{\"lc\":{\"type\":\"lowercase\",\"streams\":2,\"tokens\":4,\"chars\":11,"));
+        assertTrue(json, json.contains("\"tokenizer\":{\"ws\":{\"type\":\"whitespace\",\"streams\":2,\"tokens\":4,\"chars\":11,"));
+
+        analysisStats.removeIndex(index);
+        assertFalse(toJson(INDEX).contains(INDEX));
+    }
+
+    @Test
+    public void test_sampled() throws Exception {
+        final IndexSettings indexSettings = createIndexSettings(true);
+        final TokenizerFactory tokenizerFactory = tokenizers.get("whitespace").get(indexSettings, env, "ws", Settings.EMPTY);
+        final TokenFilterFactory tokenFilterFactory = tokenFilters.get("lowercase").get(indexSettings, env, "lc", Settings.EMPTY);
+
+        // without a char filter, the tokenizer decides which streams are timed
+        final Tokenizer tokenizer = tokenizerFactory.create();
+        final TokenStream stream = tokenFilterFactory.create(tokenizer);
+        final int count = ComponentStats.TIMING_INTERVAL * 2;
+        for (int i = 0; i < count; i++) {
+            analyze(tokenizer, stream, new StringReader("Foo Bar"));
+        }
+
+        final AnalysisStats analysisStats = AnalysisStats.getInstance();
+        final ComponentStats tokenizerStats = analysisStats.getComponentStats(index, AnalysisStats.TOKENIZER, "ws", "whitespace");
+        assertEquals(count, tokenizerStats.getStreams());
+        assertEquals(count * 2, tokenizerStats.getTokens());
+        assertEquals(2, tokenizerStats.getTimedStreams());
+        final ComponentStats filterStats = analysisStats.getComponentStats(index, AnalysisStats.TOKEN_FILTER, "lc", "lowercase");
+        assertEquals(count, filterStats.getStreams());
+        assertEquals(2, filterStats.getTimedStreams());
+    }
+
+    @Test
+    public void test_suspended() throws Exception {
+        final IndexSettings indexSettings = createIndexSettings(true);
+        final TokenizerFactory tokenizerFactory = tokenizers.get("whitespace").get(indexSettings, env, "ws", Settings.EMPTY);
+        final TokenFilterFactory tokenFilterFactory = tokenFilters.get("lowercase").get(indexSettings, env, "lc", Settings.EMPTY);
+        final CharFilterFactory charFilterFactory = charFilters.get("iteration_mark").get(indexSettings, env, "im", Settings.EMPTY);
+
+        final Tokenizer tokenizer = tokenizerFactory.create();
+        final TokenStream stream = tokenFilterFactory.create(tokenizer);
+        AnalysisStats.runSuspended(() -> analyze(tokenizer, stream, charFilterFactory.create(new StringReader("Foo Bar"))));
+
+        final AnalysisStats analysisStats = AnalysisStats.getInstance();
+        assertEquals(0, analysisStats.getComponentStats(index, AnalysisStats.TOKENIZER, "ws", "whitespace").getStreams());
+        assertEquals(0, analysisStats.getComponentStats(index, AnalysisStats.TOKEN_FILTER, "lc", "lowercase").getStreams());
+        assertEquals(0, analysisStats.getComponentStats(index, AnalysisStats.CHAR_FILTER, "im", "iteration_mark").getStreams());
+
+        // the first stream after the suspension is still timed
+        analyze(tokenizer, stream, charFilterFactory.create(new StringReader("Foo Bar")));
+        final ComponentStats tokenizerStats = analysisStats.getComponentStats(index, AnalysisStats.TOKENIZER, "ws", "whitespace");
+        assertEquals(1, tokenizerStats.getStreams());
+        assertEquals(2, tokenizerStats.getTokens());
+        assertEquals(1, tokenizerStats.getTimedStreams());
+    }
+
+    private static void analyze(final Tokenizer tokenizer, final TokenStream stream, final Reader reader) throws IOException {
+        tokenizer.setReader(reader);
+        stream.reset();
+        while (stream.incrementToken()) {
+            // consume
+        }
+        stream.end();
+        stream.close();
+    }
+
+    @Test
+    public void test_chainAware() throws Exception {
+        final IndexSettings indexSettings = createIndexSettings(true);
+        final TokenFilterFactory factory = tokenFilters.get("lowercase").get(indexSettings, env, "lc", Settings.EMPTY);
+        assertSame(factory, factory.getChainAwareTokenFilterFactory(null, List.of(), List.of(), name -> null));
+        assertSame(factory, factory.getSynonymFilter());
+        assertNotNull(factory.normalize(new WhitespaceTokenizer()));
+    }
+
+    private static String toJson(final String... indices) throws IOException {
+        final XContentBuilder builder = JsonXContent.contentBuilder();
+        AnalysisStats.getInstance().toXContent(builder, indices);
+        return builder.toString();
+    }
+
+    @Test
+    public void test_unregistered() throws Exception {
+        final IndexSettings indexSettings = createIndexSettings(true);
+        final AnalysisStats analysisStats = AnalysisStats.getInstance();
+        final int pending = analysisStats.getPendingCount();
+        TokenizerFactory tokenizerFactory = tokenizers.get("whitespace").get(indexSettings, env, "ws", Settings.EMPTY);
+        assertTrue(tokenizerFactory.create() instanceof InstrumentedTokenizer);
+        assertEquals(pending + 1, analysisStats.getPendingCount());
+        assertEquals("{\"indices\":{}}", toJson(INDEX));
+
+        // the stats of an index service discarded without callbacks are released with its components
+        tokenizerFactory = null;
+        for (int i = 0; i < 100 && analysisStats.getPendingCount() > pending; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertEquals(pending, analysisStats.getPendingCount());
+    }
+
+    @Test
+    public void test_weakGauge() throws Exception {
+        final ComponentStats stats = new ComponentStats("test", null);
+        Object owner = new Object();
+        stats.setGauge("gauge", owner, o -> 3);
+        assertTrue(toJson(stats).contains("\"gauge\":3"));
+        owner = null;
+        for (int i = 0; i < 100 && toJson(stats).contains("gauge"); i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertFalse(toJson(stats).contains("gauge"));
+    }
+
+    private static String toJson(final ComponentStats stats) throws IOException {
+        final XContentBuilder builder = JsonXContent.contentBuilder();
+        stats.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        return builder.toString();
+    }
+
+    private IndexSettings createIndexSettings(final boolean enabled) {
+        final Settings settings = Settings.builder()
+                .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(AnalysisStats.STATS_ENABLED.getKey(), enabled)
+                .build();
+        final IndexMetadata metadata = IndexMetadata.builder(INDEX).settings(settings).numberOfShards(1).numberOfReplicas(0).build();
+        final IndexSettings indexSettings = new IndexSettings(metadata, Settings.EMPTY);
+        index = indexSettings.getIndex();
+        return indexSettings;
+    }
+}
@@ -0,0 +1,151 @@
+package org.codelibs.opensearch.extension.warmup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.codelibs.opensearch.extension.kuromoji.index.analysis.KuromojiTokenizerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.Version;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.env.Environment;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.analysis.AnalyzerScope;
+import org.opensearch.index.analysis.CharFilterFactory;
+import org.opensearch.index.analysis.CustomAnalyzer;
+import org.opensearch.index.analysis.NamedAnalyzer;
+import org.opensearch.index.analysis.TokenFilterFactory;
+import org.opensearch.index.analysis.TokenizerFactory;
+
+public class AnalyzerWarmerTest {
+
+    private Path tempDir;
+
+    private Map<String, NamedAnalyzer> analyzers;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("analyzer_warmer_test");
+        final Settings settings = Settings.builder()
+                .put("path.home", tempDir.toString())
+                .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                .build();
+        final Environment env = new Environment(settings, tempDir.resolve("config"));
+        final IndexMetadata metadata = IndexMetadata.builder("test").settings(settings).numberOfShards(1).numberOfReplicas(0).build();
+        final IndexSettings indexSettings = new IndexSettings(metadata, settings);
+
+        final TokenizerFactory kuromoji = new KuromojiTokenizerFactory(indexSettings, env, "kuromoji", Settings.EMPTY);
+        final TokenizerFactory whitespace = TokenizerFactory.newFactory("whitespace", WhitespaceTokenizer::new);
+        analyzers = new LinkedHashMap<>();
+        analyzers.put("ja", newAnalyzer("ja", kuromoji));
+        analyzers.put("ws", newAnalyzer("ws", whitespace));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (final NamedAnalyzer analyzer : analyzers.values()) {
+            analyzer.close();
+        }
+        try (var paths = Files.walk(tempDir)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static NamedAnalyzer newAnalyzer(final String name, final TokenizerFactory tokenizerFactory) {
+        return new NamedAnalyzer(name, AnalyzerScope.INDEX,
+                new CustomAnalyzer(tokenizerFactory, new CharFilterFactory[0], new TokenFilterFactory[0]));
+    }
+
+    @Test
+    public void test_selectAnalyzers() {
+        final Map<String, Analyzer> selected = AnalyzerWarmer.selectAnalyzers(analyzers);
+        assertEquals(List.of("ja"), List.copyOf(selected.keySet()));
+        assertFalse(new AnalyzerWarmer("test", selected, null, 1).isEmpty());
+        assertTrue(new AnalyzerWarmer("test", Map.of(), null, 1).isEmpty());
+    }
+
+    @Test
+    public void test_defaultCorpus() {
+        final AnalyzerWarmer warmer = new AnalyzerWarmer("test", AnalyzerWarmer.selectAnalyzers(analyzers), null, 3);
+        warmer.run();
+        assertEquals(3 * AnalyzerWarmer.DEFAULT_CORPUS.size(), warmer.getAnalyzed());
+    }
+
+    @Test
+    public void test_corpusFile() throws Exception {
+        final Path corpus = tempDir.resolve("warmup.txt");
+        Files.write(corpus, List.of("東京スカイツリー", "", "関西国際空港"), StandardCharsets.UTF_8);
+        final AnalyzerWarmer warmer = new AnalyzerWarmer("test", new LinkedHashMap<>(analyzers), corpus, 2);
+        warmer.run();
+        assertEquals(2 * 2 * 2, warmer.getAnalyzed());
+    }
+
+    @Test
+    public void test_resolveCorpus() {
+        final Path config = tempDir.resolve("config");
+        assertEquals(config.resolve("warmup/corpus.txt"), AnalyzerWarmer.resolveCorpus(config, "warmup/./corpus.txt"));
+        assertEquals(config.resolve("corpus.txt"), AnalyzerWarmer.resolveCorpus(config, "warmup/../corpus.txt"));
+        for (final String corpus : new String[] { "../corpus.txt", "warmup/../../corpus.txt", tempDir.resolve("corpus.txt").toString() }) {
+            try {
+                AnalyzerWarmer.resolveCorpus(config, corpus);
+                fail(corpus);
+            } catch (final IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("within the config directory"));
+            }
+        }
+    }
+
+    @Test
+    public void test_corpusSetting() {
+        assertEquals("warmup.txt", AnalyzerWarmer.WARMUP_CORPUS.get(Settings.builder().put(AnalyzerWarmer.WARMUP_CORPUS.getKey(), "warmup.txt").build()));
+        assertEquals("", AnalyzerWarmer.WARMUP_CORPUS.get(Settings.EMPTY));
+        // only the syntax is checked, independently of the working directory
+        AnalyzerWarmer.validateCorpus("warmup/../corpus.txt");
+        AnalyzerWarmer.validateCorpus("..corpus.txt");
+        for (final String corpus : new String[] { "../../etc/passwd", "warmup/../../corpus.txt", tempDir.resolve("corpus.txt").toString() }) {
+            try {
+                AnalyzerWarmer.WARMUP_CORPUS.get(Settings.builder().put(AnalyzerWarmer.WARMUP_CORPUS.getKey(), corpus).build());
+                fail(corpus);
+            } catch (final IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("within the config directory"));
+            }
+        }
+    }
+
+    @Test
+    public void test_missingCorpusFile() {
+        final AnalyzerWarmer warmer = new AnalyzerWarmer("test", new LinkedHashMap<>(analyzers), tempDir.resolve("missing.txt"), 2);
+        warmer.run();
+        assertEquals(0, warmer.getAnalyzed());
+    }
+
+    @Test
+    public void test_cancel() {
+        final AnalyzerWarmer warmer = new AnalyzerWarmer("test", new LinkedHashMap<>(analyzers), null, 10);
+        warmer.cancel();
+        warmer.run();
+        assertEquals(0, warmer.getAnalyzed());
+    }
+
+    @Test
+    public void test_closedAnalyzer() {
+        analyzers.get("ja").close();
+        final AnalyzerWarmer warmer = new AnalyzerWarmer("test", AnalyzerWarmer.selectAnalyzers(analyzers), null, 10);
+        warmer.run();
+        assertEquals(0, warmer.getAnalyzed());
+        assertFalse(warmer.isEmpty());
+    }
+}